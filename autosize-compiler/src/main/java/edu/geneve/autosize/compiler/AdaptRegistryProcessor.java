@@ -0,0 +1,301 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * 处理 {@code edu.geneve.autosize.annotation.AutoSizeAdapt}, 生成 {@code
+ * edu.geneve.autosize.annotation.GeneratedAdaptRegistry}
+ * <p>
+ * 生成的类把被注解的类和适配参数按下标保存在数组中, 运行时 {@code DefaultAutoAdaptStrategy} 直接按 {@link Class} 比较查找, 不需要反射读取注解
+ * <p>
+ * 多个模块使用此处理器时, 库模块通过 {@value #OPTION_MODULE_NAME} 指定模块名, 只在 {@value #MODULE_PACKAGE} 包中生成本模块的表;
+ * 没有指定模块名的应用模块从 classpath 中找出所有库模块的表, 与本模块的表一起合并到 {@code GeneratedAdaptRegistry} 中
+ * 应用模块即使没有使用注解也需要引入此处理器, 所以处理器声明支持所有注解, 但不会占用任何注解
+ * <pre>
+ * // 库模块
+ * javaCompileOptions {
+ *     annotationProcessorOptions {
+ *         arguments = ['autosize.moduleName': project.name]
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public class AdaptRegistryProcessor extends AbstractProcessor {
+
+  static final String ANNOTATION_NAME = "edu.geneve.autosize.annotation.AutoSizeAdapt";
+  static final String REGISTRY_PACKAGE = "edu.geneve.autosize.annotation";
+  static final String REGISTRY_SIMPLE_NAME = "GeneratedAdaptRegistry";
+  static final String REGISTRY_INTERFACE_NAME = REGISTRY_PACKAGE + ".AdaptRegistry";
+  static final String COMPOSITE_NAME = REGISTRY_PACKAGE + ".CompositeAdaptRegistry";
+  /**
+   * 应用模块自己的表, 有库模块的表需要合并时使用
+   */
+  static final String LOCAL_SIMPLE_NAME = "GeneratedLocalAdaptRegistry";
+  static final String MODULE_PACKAGE = REGISTRY_PACKAGE + ".modules";
+  static final String MODULE_PREFIX = "AdaptRegistry_";
+  static final String OPTION_MODULE_NAME = "autosize.moduleName";
+
+  private final List<Entry> mEntries = new ArrayList<>();
+  private boolean isGenerated;
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton("*");
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return Collections.singleton(OPTION_MODULE_NAME);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    final Elements elements = processingEnv.getElementUtils();
+    final TypeElement annotation = elements.getTypeElement(ANNOTATION_NAME);
+    if (annotation == null || roundEnv.processingOver()) {
+      return false;
+    }
+    final List<Entry> entries = new ArrayList<>();
+    for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+      final Entry entry = parse(element, annotation);
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    if (isGenerated) {
+      if (!entries.isEmpty()) {
+        error(entries.get(0).element,
+            "@AutoSizeAdapt on generated sources is not supported, the registry has already been"
+                + " written");
+      }
+      return false;
+    }
+    mEntries.addAll(entries);
+    Collections.sort(mEntries, new Comparator<Entry>() {
+      @Override
+      public int compare(Entry o1, Entry o2) {
+        return o1.className.compareTo(o2.className);
+      }
+    });
+
+    final String moduleName = processingEnv.getOptions().get(OPTION_MODULE_NAME);
+    if (moduleName != null) {
+      if (!mEntries.isEmpty()) {
+        write(MODULE_PACKAGE + "." + moduleClassName(moduleName),
+            RegistryWriter.generate(MODULE_PACKAGE, moduleClassName(moduleName), mEntries));
+        isGenerated = true;
+      }
+      return false;
+    }
+
+    final List<String> modules = findModuleRegistries(elements);
+    if (mEntries.isEmpty() && modules.isEmpty()) {
+      return false;
+    }
+    if (elements.getTypeElement(REGISTRY_PACKAGE + "." + REGISTRY_SIMPLE_NAME) != null) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          REGISTRY_SIMPLE_NAME + " already exists on the classpath, every library module that"
+              + " uses @AutoSizeAdapt must pass -A" + OPTION_MODULE_NAME + "=<name> to"
+              + " autosize-compiler");
+      isGenerated = true;
+      return false;
+    }
+    if (modules.isEmpty()) {
+      write(REGISTRY_PACKAGE + "." + REGISTRY_SIMPLE_NAME,
+          RegistryWriter.generate(REGISTRY_PACKAGE, REGISTRY_SIMPLE_NAME, mEntries));
+    } else {
+      if (!mEntries.isEmpty()) {
+        write(REGISTRY_PACKAGE + "." + LOCAL_SIMPLE_NAME,
+            RegistryWriter.generate(REGISTRY_PACKAGE, LOCAL_SIMPLE_NAME, mEntries));
+        modules.add(0, REGISTRY_PACKAGE + "." + LOCAL_SIMPLE_NAME);
+      }
+      write(REGISTRY_PACKAGE + "." + REGISTRY_SIMPLE_NAME,
+          RegistryWriter.generateComposite(REGISTRY_PACKAGE, REGISTRY_SIMPLE_NAME, modules));
+    }
+    isGenerated = true;
+    return false;
+  }
+
+  /**
+   * 从 classpath 中找出库模块生成的表, 按类名排序保证生成的源码稳定
+   */
+  private static List<String> findModuleRegistries(Elements elements) {
+    final List<String> modules = new ArrayList<>();
+    final PackageElement modulePackage = elements.getPackageElement(MODULE_PACKAGE);
+    if (modulePackage == null) {
+      return modules;
+    }
+    for (Element element : modulePackage.getEnclosedElements()) {
+      if (element.getKind() == ElementKind.CLASS
+          && element.getSimpleName().toString().startsWith(MODULE_PREFIX)) {
+        modules.add(((TypeElement) element).getQualifiedName().toString());
+      }
+    }
+    Collections.sort(modules);
+    return modules;
+  }
+
+  /**
+   * 把模块名中不能用于类名的字符替换为 {@code _}
+   */
+  static String moduleClassName(String moduleName) {
+    final StringBuilder sb = new StringBuilder(MODULE_PREFIX.length() + moduleName.length());
+    sb.append(MODULE_PREFIX);
+    for (int i = 0; i < moduleName.length(); i++) {
+      final char c = moduleName.charAt(i);
+      sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return 注解不是直接声明在这个类上 (通过 {@link java.lang.annotation.Inherited} 从父类继承) 或者校验失败时返回 {@code null},
+   * 继承的情况由运行时查找父类处理
+   */
+  private Entry parse(Element element, TypeElement annotation) {
+    if (element.getKind() != ElementKind.CLASS) {
+      error(element, "@AutoSizeAdapt can only be applied to classes");
+      return null;
+    }
+    final TypeElement type = (TypeElement) element;
+    AnnotationMirror annotationMirror = null;
+    for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+      if (mirror.getAnnotationType().asElement().equals(annotation)) {
+        annotationMirror = mirror;
+        break;
+      }
+    }
+    if (annotationMirror == null) {
+      return null;
+    }
+    for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+        error(type, "@AutoSizeAdapt class %s must be public", type.getQualifiedName());
+        return null;
+      }
+      if (((TypeElement) e).getNestingKind() == NestingKind.MEMBER
+          && !e.getModifiers().contains(Modifier.STATIC)) {
+        error(type, "@AutoSizeAdapt class %s must be static", type.getQualifiedName());
+        return null;
+      }
+    }
+
+    float sizeInDp = 0;
+    boolean isBaseOnWidth = true;
+    boolean isCancel = false;
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+        : annotationMirror.getElementValues().entrySet()) {
+      final String name = value.getKey().getSimpleName().toString();
+      final Object v = value.getValue().getValue();
+      if ("sizeInDp".equals(name)) {
+        sizeInDp = ((Number) v).floatValue();
+      } else if ("baseOnWidth".equals(name)) {
+        isBaseOnWidth = (Boolean) v;
+      } else if ("cancel".equals(name)) {
+        isCancel = (Boolean) v;
+      }
+    }
+    if (Float.isNaN(sizeInDp) || Float.isInfinite(sizeInDp)) {
+      error(type, "@AutoSizeAdapt sizeInDp of %s must be finite", type.getQualifiedName());
+      return null;
+    }
+    if (isCancel && sizeInDp > 0) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          "@AutoSizeAdapt(cancel = true) ignores sizeInDp", type);
+    }
+    return new Entry(type, type.getQualifiedName().toString(), sizeInDp, isBaseOnWidth,
+        isCancel);
+  }
+
+  private void write(String className, String source) {
+    final Element[] originatingElements = new Element[mEntries.size()];
+    for (int i = 0; i < mEntries.size(); i++) {
+      originatingElements[i] = mEntries.get(i).element;
+    }
+    try {
+      final JavaFileObject file = processingEnv.getFiler()
+          .createSourceFile(className, originatingElements);
+      final Writer writer = file.openWriter();
+      try {
+        writer.write(source);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "failed to write " + className + ": " + e);
+    }
+  }
+
+  private void error(Element element, String format, Object... args) {
+    processingEnv.getMessager()
+        .printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+  }
+
+  /**
+   * 一个被注解的类和它的适配参数
+   */
+  static final class Entry {
+
+    final Element element;
+    final String className;
+    final float sizeInDp;
+    final boolean isBaseOnWidth;
+    final boolean isCancel;
+
+    Entry(Element element, String className, float sizeInDp, boolean isBaseOnWidth,
+        boolean isCancel) {
+      this.element = element;
+      this.className = className;
+      this.sizeInDp = sizeInDp;
+      this.isBaseOnWidth = isBaseOnWidth;
+      this.isCancel = isCancel;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.compiler;
+
+import java.util.List;
+
+/**
+ * 生成 {@code AdaptRegistry} 实现类的源码
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class RegistryWriter {
+
+  private RegistryWriter() {
+    throw new IllegalStateException("RegistryWriter can not be instantiated!");
+  }
+
+  static String generate(String packageName, String simpleName,
+      List<AdaptRegistryProcessor.Entry> entries) {
+    final StringBuilder sb = new StringBuilder(512 + entries.size() * 96);
+    sb.append("// Generated by ").append(AdaptRegistryProcessor.class.getName())
+        .append(". Do not edit.\n");
+    sb.append("package ").append(packageName).append(";\n\n");
+    sb.append("public final class ").append(simpleName).append(" implements ")
+        .append(AdaptRegistryProcessor.REGISTRY_INTERFACE_NAME).append(" {\n\n");
+
+    sb.append("  private static final Class<?>[] CLASSES = {\n");
+    for (AdaptRegistryProcessor.Entry entry : entries) {
+      sb.append("      ").append(entry.className).append(".class,\n");
+    }
+    sb.append("  };\n\n");
+
+    sb.append("  private static final float[] SIZES_IN_DP = {\n");
+    for (AdaptRegistryProcessor.Entry entry : entries) {
+      sb.append("      ").append(entry.sizeInDp).append("f,\n");
+    }
+    sb.append("  };\n\n");
+
+    sb.append("  /**\n   * bit 0: baseOnWidth, bit 1: cancel\n   */\n");
+    sb.append("  private static final byte[] FLAGS = {\n");
+    for (AdaptRegistryProcessor.Entry entry : entries) {
+      sb.append("      ").append((entry.isBaseOnWidth ? 1 : 0) | (entry.isCancel ? 2 : 0))
+          .append(",\n");
+    }
+    sb.append("  };\n\n");
+
+    sb.append("  @Override\n  public int size() {\n    return CLASSES.length;\n  }\n\n");
+    sb.append("  @Override\n  public int indexOf(Class<?> target) {\n")
+        .append("    for (int i = 0; i < CLASSES.length; i++) {\n")
+        .append("      if (CLASSES[i] == target) {\n")
+        .append("        return i;\n")
+        .append("      }\n")
+        .append("    }\n")
+        .append("    return -1;\n")
+        .append("  }\n\n");
+    sb.append("  @Override\n  public Class<?> getTargetClass(int index) {\n")
+        .append("    return CLASSES[index];\n  }\n\n");
+    sb.append("  @Override\n  public float getSizeInDp(int index) {\n")
+        .append("    return SIZES_IN_DP[index];\n  }\n\n");
+    sb.append("  @Override\n  public boolean isBaseOnWidth(int index) {\n")
+        .append("    return (FLAGS[index] & 1) != 0;\n  }\n\n");
+    sb.append("  @Override\n  public boolean isCancel(int index) {\n")
+        .append("    return (FLAGS[index] & 2) != 0;\n  }\n");
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  /**
+   * 生成把 {@code registryClassNames} 合并在一起的表, 排在前面的表优先
+   */
+  static String generateComposite(String packageName, String simpleName,
+      List<String> registryClassNames) {
+    final StringBuilder sb = new StringBuilder(256 + registryClassNames.size() * 96);
+    sb.append("// Generated by ").append(AdaptRegistryProcessor.class.getName())
+        .append(". Do not edit.\n");
+    sb.append("package ").append(packageName).append(";\n\n");
+    sb.append("public final class ").append(simpleName).append(" extends ")
+        .append(AdaptRegistryProcessor.COMPOSITE_NAME).append(" {\n\n");
+    sb.append("  public ").append(simpleName).append("() {\n");
+    sb.append("    super(");
+    for (int i = 0; i < registryClassNames.size(); i++) {
+      sb.append(i == 0 ? "\n" : ",\n").append("        new ").append(registryClassNames.get(i))
+          .append("()");
+    }
+    sb.append(");\n  }\n");
+    sb.append("}\n");
+    return sb.toString();
+  }
+}
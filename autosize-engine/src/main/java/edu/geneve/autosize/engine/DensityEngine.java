@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.engine;
+
+/**
+ * AutoSize 的核心计算, 不依赖 Android, 输入和输出都是基本类型, 可以直接在 JVM 上测试和做基准测试
+ * <p>
+ * autosize 中的 {@code AutoSize} 负责从 {@code Activity}、{@code DisplayMetrics} 和 {@code AutoSizeConfig} 中取出参数,
+ * 调用这里的方法计算, 再把结果写回 {@code DisplayMetrics}; 这里的每一个表达式都与原来的写法保持一致, 结果逐位相同
+ * <p>
+ * 适配结果 ({@code density} 和 {@code scaledDensity}) 打包在一个 {@code long} 中, 使用 {@link #densityOf(long)} 等方法解包,
+ * 不会产生对象分配
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class DensityEngine {
+
+  /**
+   * 不使用副单位, 与 {@code Subunits#NONE} 对应
+   */
+  public static final int SUBUNITS_NONE = 0;
+  /**
+   * 副单位 pt, 与 {@code Subunits#PT} 对应
+   */
+  public static final int SUBUNITS_PT = 1;
+  /**
+   * 副单位 in, 与 {@code Subunits#IN} 对应
+   */
+  public static final int SUBUNITS_IN = 2;
+  /**
+   * 副单位 mm, 与 {@code Subunits#MM} 对应
+   */
+  public static final int SUBUNITS_MM = 3;
+
+  private DensityEngine() {
+    throw new IllegalStateException("you can't instantiate me!");
+  }
+
+  /**
+   * 根据屏幕宽高和方向选出参与计算的屏幕尺寸, 宽高的顺序不影响结果
+   *
+   * @param width 屏幕宽度, 单位 px
+   * @param height 屏幕高度, 单位 px
+   * @param isVertical {@code true} 为纵向, {@code false} 为横向
+   * @param isBaseOnWidth 是否以宽度为基准
+   * @param verticalInsets 以高度为基准时需要减去的状态栏和导航栏高度, 使用设备实际尺寸时传 {@code 0}
+   * @return 屏幕宽度或高度, 单位 px
+   */
+  public static int selectScreenSize(int width, int height, boolean isVertical,
+      boolean isBaseOnWidth, int verticalInsets) {
+    final int shortSide = Math.min(width, height);
+    final int longSide = Math.max(width, height);
+    if (isBaseOnWidth) {
+      return isVertical ? shortSide : longSide;
+    }
+    return (isVertical ? longSide : shortSide) - verticalInsets;
+  }
+
+  /**
+   * 计算适配后的 {@code density} 和 {@code scaledDensity}
+   *
+   * @param screenSize 参与计算的屏幕宽度或高度, 单位 px
+   * @param sizeInDp 设计图尺寸, 单位 dp
+   * @param initDensity 最初的 {@code DisplayMetrics#density}
+   * @param initScaledDensity 最初的 {@code DisplayMetrics#scaledDensity}, 包含了字体缩放
+   * @return 打包后的结果, 使用 {@link #densityOf(long)}、{@link #densityDpiOf(long)}、{@link
+   * #scaledDensityOf(long)} 和 {@link #xdpiOf(long)} 解包
+   */
+  public static long resolve(int screenSize, float sizeInDp, float initDensity,
+      float initScaledDensity) {
+    float targetDensity = screenSize * 1.0f / sizeInDp;
+    float targetScaledDensity = targetDensity * (initScaledDensity * 1.0f / initDensity);
+    return ((long) Float.floatToRawIntBits(targetDensity) << 32)
+        | (Float.floatToRawIntBits(targetScaledDensity) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * 从 {@link #resolve(int, float, float, float)} 的结果中取出 {@code density}
+   */
+  public static float densityOf(long resolved) {
+    return Float.intBitsToFloat((int) (resolved >>> 32));
+  }
+
+  /**
+   * 从 {@link #resolve(int, float, float, float)} 的结果中取出 {@code densityDpi}
+   */
+  public static int densityDpiOf(long resolved) {
+    return (int) (densityOf(resolved) * 160);
+  }
+
+  /**
+   * 从 {@link #resolve(int, float, float, float)} 的结果中取出 {@code scaledDensity}
+   */
+  public static float scaledDensityOf(long resolved) {
+    return Float.intBitsToFloat((int) resolved);
+  }
+
+  /**
+   * 从 {@link #resolve(int, float, float, float)} 的结果中取出 {@code xdpi}, 即每个副单位对应的 px, 与 {@code density}
+   * 相同
+   */
+  public static float xdpiOf(long resolved) {
+    return densityOf(resolved);
+  }
+
+  /**
+   * 取消适配时, 把最初的 {@code DisplayMetrics#xdpi} 换算为与 {@link #xdpiOf(long)} 相同的含义
+   *
+   * @param initXdpi 最初的 {@code DisplayMetrics#xdpi}
+   * @param subunits {@link #SUBUNITS_NONE} ~ {@link #SUBUNITS_MM}
+   * @return 每个副单位对应的 px
+   */
+  public static float initXdpi(float initXdpi, int subunits) {
+    switch (subunits) {
+      case SUBUNITS_PT:
+        return initXdpi / 72f;
+
+      case SUBUNITS_MM:
+        return initXdpi / 25.4f;
+
+      default:
+        return initXdpi;
+    }
+  }
+
+  /**
+   * 把每个副单位对应的 px 换算为需要写入 {@code DisplayMetrics#xdpi} 的值
+   *
+   * @param xdpi {@link #xdpiOf(long)} 或 {@link #initXdpi(float, int)} 的结果
+   * @param subunits {@link #SUBUNITS_NONE} ~ {@link #SUBUNITS_MM}, {@link #SUBUNITS_NONE} 时不需要写入, 原样返回
+   * @return {@code DisplayMetrics#xdpi}
+   */
+  public static float displayXdpi(float xdpi, int subunits) {
+    switch (subunits) {
+      case SUBUNITS_PT:
+        return xdpi * 72f;
+
+      case SUBUNITS_MM:
+        return xdpi * 25.4f;
+
+      default:
+        return xdpi;
+    }
+  }
+
+  /**
+   * 当前值中需要管理的部分是否已经是目标值, 用于跳过重复的写入
+   *
+   * @param density 当前的 {@code density}
+   * @param densityDpi 当前的 {@code densityDpi}
+   * @param scaledDensity 当前的 {@code scaledDensity}
+   * @param xdpi 当前的 {@code xdpi}
+   * @param targetDensity 目标 {@code density}
+   * @param targetDensityDpi 目标 {@code densityDpi}
+   * @param targetScaledDensity 目标 {@code scaledDensity}
+   * @param targetXdpi 目标值, 与 {@link #xdpiOf(long)} 含义相同
+   * @param isSupportDP 是否管理 {@code density} 和 {@code densityDpi}
+   * @param isSupportSP 是否管理 {@code scaledDensity}
+   * @param subunits {@link #SUBUNITS_NONE} ~ {@link #SUBUNITS_MM}
+   * @return {@code true} 为不需要写入
+   */
+  public static boolean isApplied(float density, int densityDpi, float scaledDensity, float xdpi,
+      float targetDensity, int targetDensityDpi, float targetScaledDensity, float targetXdpi,
+      boolean isSupportDP, boolean isSupportSP, int subunits) {
+    if (isSupportDP && (density != targetDensity || densityDpi != targetDensityDpi)) {
+      return false;
+    }
+    if (isSupportSP && scaledDensity != targetScaledDensity) {
+      return false;
+    }
+    return subunits == SUBUNITS_NONE || xdpi == displayXdpi(targetXdpi, subunits);
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * {@link DensityEngine} 的单元测试, 直接在 JVM 上运行
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public class DensityEngineTest {
+
+  private static final float INIT_DENSITY = 3.0f;
+  private static final float INIT_SCALED_DENSITY = 3.0f;
+
+  @Test
+  public void resolve_baseOnWidth() {
+    long resolved = DensityEngine.resolve(1080, 360, INIT_DENSITY, INIT_SCALED_DENSITY);
+    assertEquals(3.0f, DensityEngine.densityOf(resolved), 0);
+    assertEquals(480, DensityEngine.densityDpiOf(resolved));
+    assertEquals(3.0f, DensityEngine.scaledDensityOf(resolved), 0);
+    assertEquals(3.0f, DensityEngine.xdpiOf(resolved), 0);
+  }
+
+  @Test
+  public void resolve_keepsFontScale() {
+    long resolved = DensityEngine.resolve(1080, 400, INIT_DENSITY, INIT_DENSITY * 1.3f);
+    assertEquals(2.7f, DensityEngine.densityOf(resolved), 1e-6f);
+    assertEquals(2.7f * 1.3f, DensityEngine.scaledDensityOf(resolved), 1e-5f);
+  }
+
+  /**
+   * 与抽取之前 AutoSize 中的写法逐位相同
+   */
+  @Test
+  public void resolve_matchesOriginalExpressions() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      int screenSize = 200 + random.nextInt(4000);
+      float sizeInDp = 200 + random.nextFloat() * 1000;
+      float initDensity = 0.75f + random.nextFloat() * 3.5f;
+      float initScaledDensity = initDensity * (0.8f + random.nextFloat());
+
+      float targetDensity = screenSize * 1.0f / sizeInDp;
+      float targetScaledDensity = targetDensity * (initScaledDensity * 1.0f / initDensity);
+      int targetDensityDpi = (int) (targetDensity * 160);
+      float targetXdpi = screenSize * 1.0f / sizeInDp;
+
+      long resolved = DensityEngine.resolve(screenSize, sizeInDp, initDensity,
+          initScaledDensity);
+      assertEquals(Float.floatToIntBits(targetDensity),
+          Float.floatToIntBits(DensityEngine.densityOf(resolved)));
+      assertEquals(Float.floatToIntBits(targetScaledDensity),
+          Float.floatToIntBits(DensityEngine.scaledDensityOf(resolved)));
+      assertEquals(targetDensityDpi, DensityEngine.densityDpiOf(resolved));
+      assertEquals(Float.floatToIntBits(targetXdpi),
+          Float.floatToIntBits(DensityEngine.xdpiOf(resolved)));
+    }
+  }
+
+  @Test
+  public void selectScreenSize_followsOrientation() {
+    assertEquals(1080, DensityEngine.selectScreenSize(1080, 1920, true, true, 0));
+    assertEquals(1080, DensityEngine.selectScreenSize(1920, 1080, true, true, 0));
+    assertEquals(1920, DensityEngine.selectScreenSize(1080, 1920, false, true, 0));
+    assertEquals(1920, DensityEngine.selectScreenSize(1080, 1920, true, false, 0));
+    assertEquals(1080, DensityEngine.selectScreenSize(1080, 1920, false, false, 0));
+  }
+
+  @Test
+  public void selectScreenSize_subtractsInsetsOnlyForHeight() {
+    assertEquals(1080, DensityEngine.selectScreenSize(1080, 1920, true, true, 200));
+    assertEquals(1720, DensityEngine.selectScreenSize(1080, 1920, true, false, 200));
+  }
+
+  @Test
+  public void subunits_roundTrip() {
+    assertEquals(440f, DensityEngine.displayXdpi(DensityEngine.initXdpi(440f,
+        DensityEngine.SUBUNITS_IN), DensityEngine.SUBUNITS_IN), 0);
+    assertEquals(440f, DensityEngine.displayXdpi(DensityEngine.initXdpi(440f,
+        DensityEngine.SUBUNITS_PT), DensityEngine.SUBUNITS_PT), 1e-3f);
+    assertEquals(440f, DensityEngine.displayXdpi(DensityEngine.initXdpi(440f,
+        DensityEngine.SUBUNITS_MM), DensityEngine.SUBUNITS_MM), 1e-3f);
+    assertEquals(3.0f * 72f, DensityEngine.displayXdpi(3.0f, DensityEngine.SUBUNITS_PT), 0);
+    assertEquals(3.0f * 25.4f, DensityEngine.displayXdpi(3.0f, DensityEngine.SUBUNITS_MM), 0);
+  }
+
+  @Test
+  public void isApplied_onlyChecksManagedValues() {
+    assertTrue(DensityEngine.isApplied(3.0f, 480, 3.0f, 440f, 3.0f, 480, 3.0f, 2.0f,
+        true, true, DensityEngine.SUBUNITS_NONE));
+    assertFalse(DensityEngine.isApplied(3.0f, 480, 3.0f, 440f, 3.0f, 480, 3.9f, 2.0f,
+        true, true, DensityEngine.SUBUNITS_NONE));
+    assertTrue(DensityEngine.isApplied(3.0f, 480, 3.0f, 440f, 3.0f, 480, 3.9f, 2.0f,
+        true, false, DensityEngine.SUBUNITS_NONE));
+    assertTrue(DensityEngine.isApplied(2.0f, 320, 2.0f, 440f, 3.0f, 480, 3.0f, 2.0f,
+        false, false, DensityEngine.SUBUNITS_NONE));
+    assertTrue(DensityEngine.isApplied(3.0f, 480, 3.0f, 144f, 3.0f, 480, 3.0f, 2.0f,
+        true, true, DensityEngine.SUBUNITS_PT));
+    assertFalse(DensityEngine.isApplied(3.0f, 480, 3.0f, 440f, 3.0f, 480, 3.0f, 2.0f,
+        true, true, DensityEngine.SUBUNITS_IN));
+  }
+}
@@ -0,0 +1,7 @@
+# Keep rules applied to apps that depend on autosize.
+
+# autosize-compiler generates this class and AdaptRegistryHolder only reaches it through
+# Class.forName. Without this rule R8 removes it, and every @AutoSizeAdapt rule is silently ignored.
+-keep class edu.geneve.autosize.annotation.GeneratedAdaptRegistry {
+    <init>();
+}
@@ -18,8 +18,15 @@ package edu.geneve.autosize;
 import android.app.Activity;
 import android.app.Application;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
+import edu.geneve.autosize.utils.AutoSizeMetrics;
+import edu.geneve.autosize.utils.ScreenUtils;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * {@link ActivityLifecycleCallbacksImpl} 可以用来代替在 BaseActivity 中加入适配代码的传统方式 这种方案类似于
@@ -42,6 +49,25 @@ public class ActivityLifecycleCallbacksImpl
    */
   private FragmentLifecycleCallbacksImpl mFragmentLifecycleCallbacks;
 
+  /**
+   * 存活的 {@link Activity}, 按最近一次 onStart 的顺序排列, 最后一个是最上层的 {@link Activity}, 只在主线程访问
+   * <p>
+   * 使用弱引用, 即使没有收到 onDestroy 也不会泄漏
+   */
+  private final List<WeakReference<Activity>> mLiveActivities = new ArrayList<>();
+
+  /**
+   * 用于在 {@link #reapplyAdapt()} 之后再适配一次窗口模式的 {@link Activity}, 第一次需要时创建
+   */
+  private Handler mMainHandler;
+
+  private final Runnable mReapplyWindowed = new Runnable() {
+    @Override
+    public void run() {
+      reapplyWindowed();
+    }
+  };
+
   public ActivityLifecycleCallbacksImpl(AutoAdaptStrategy autoAdaptStrategy) {
     mFragmentLifecycleCallbacks = new FragmentLifecycleCallbacksImpl(autoAdaptStrategy);
     mAutoAdaptStrategy = autoAdaptStrategy;
@@ -49,6 +75,8 @@ public class ActivityLifecycleCallbacksImpl
 
   @Override
   public void onActivityCreated(Activity activity, Bundle bundle) {
+    moveToTop(activity);
+    ScreenUtils.updateWindowMode(activity);
     if (AutoSizeConfig.getInstance().isCustomFragment()) {
       if (activity instanceof FragmentActivity) {
         ((FragmentActivity) activity)
@@ -58,14 +86,20 @@ public class ActivityLifecycleCallbacksImpl
     }
 
     if (mAutoAdaptStrategy != null) {
-      mAutoAdaptStrategy.applyAdapt(activity, activity);
+      AutoSizeMetrics.recordApplyAdapt(AutoSizeMetrics.SOURCE_ACTIVITY_CREATED);
+      AutoSizeConfig.getInstance().getAdaptTracer()
+          .applyAdapt(mAutoAdaptStrategy, activity, activity);
     }
   }
 
   @Override
   public void onActivityStarted(Activity activity) {
+    moveToTop(activity);
+    ScreenUtils.updateWindowMode(activity);
     if (mAutoAdaptStrategy != null) {
-      mAutoAdaptStrategy.applyAdapt(activity, activity);
+      AutoSizeMetrics.recordApplyAdapt(AutoSizeMetrics.SOURCE_ACTIVITY_STARTED);
+      AutoSizeConfig.getInstance().getAdaptTracer()
+          .applyAdapt(mAutoAdaptStrategy, activity, activity);
     }
   }
 
@@ -87,6 +121,106 @@ public class ActivityLifecycleCallbacksImpl
 
   @Override
   public void onActivityDestroyed(Activity activity) {
+    ScreenUtils.removeWindowMode(activity);
+    for (int i = mLiveActivities.size() - 1; i >= 0; i--) {
+      final Activity live = mLiveActivities.get(i).get();
+      if (live == null || live == activity) {
+        mLiveActivities.remove(i);
+      }
+    }
+  }
+
+  /**
+   * 屏幕配置发生变化后, 用 {@link AutoSizeConfig} 中已经更新好的屏幕尺寸和方向一次性重新适配所有存活的 {@link Activity}, 避免后台的
+   * {@link Activity} 继续持有旧的 density, 也避免每个 {@link Activity} 各自发现方向变化后重复测量屏幕
+   * <p>
+   * 由下到上依次适配, 最上层的 {@link Activity} 最后适配, 所以 {@link Application} 的 {@link
+   * android.util.DisplayMetrics} 最终与最上层的 {@link Activity} 一致
+   * <p>
+   * 窗口模式的 {@link Activity} 以自己的窗口尺寸适配, Android 9.0 及以上此时它的 {@link android.content.res.Configuration}
+   * 可能还没有更新, 所以之后在主线程再适配一次这些 {@link Activity}
+   */
+  void reapplyAdapt() {
+    final AutoAdaptStrategy strategy = mAutoAdaptStrategy;
+    if (strategy == null || mLiveActivities.isEmpty()) {
+      return;
+    }
+    final AdaptTracer tracer = AutoSizeConfig.getInstance().getAdaptTracer();
+    boolean hasWindowed = false;
+    for (int i = 0; i < mLiveActivities.size(); ) {
+      final Activity activity = mLiveActivities.get(i).get();
+      if (activity == null) {
+        mLiveActivities.remove(i);
+        continue;
+      }
+      if (!activity.isFinishing()) {
+        hasWindowed |= ScreenUtils.updateWindowMode(activity);
+        AutoSizeMetrics.recordApplyAdapt(AutoSizeMetrics.SOURCE_CONFIGURATION_CHANGED);
+        tracer.applyAdapt(strategy, activity, activity);
+      }
+      i++;
+    }
+    if (hasWindowed) {
+      if (mMainHandler == null) {
+        mMainHandler = new Handler(Looper.getMainLooper());
+      }
+      mMainHandler.removeCallbacks(mReapplyWindowed);
+      mMainHandler.post(mReapplyWindowed);
+    }
+  }
+
+  /**
+   * 用已经更新的 {@link android.content.res.Configuration} 再适配一次窗口模式的 {@link Activity}, 最后适配最上层的 {@link
+   * Activity}, 让 {@link Application} 的 {@link android.util.DisplayMetrics} 仍与它一致
+   */
+  private void reapplyWindowed() {
+    final AutoAdaptStrategy strategy = mAutoAdaptStrategy;
+    if (strategy == null || AutoSizeConfig.getInstance().isStop()) {
+      return;
+    }
+    for (int i = mLiveActivities.size() - 1; i >= 0; i--) {
+      if (mLiveActivities.get(i).get() == null) {
+        mLiveActivities.remove(i);
+      }
+    }
+    final AdaptTracer tracer = AutoSizeConfig.getInstance().getAdaptTracer();
+    final int top = mLiveActivities.size() - 1;
+    for (int i = 0; i <= top; i++) {
+      final Activity activity = mLiveActivities.get(i).get();
+      if (activity != null && !activity.isFinishing()
+          && (i == top || ScreenUtils.isWindowed(activity))) {
+        AutoSizeMetrics.recordApplyAdapt(AutoSizeMetrics.SOURCE_CONFIGURATION_CHANGED);
+        tracer.applyAdapt(strategy, activity, activity);
+      }
+    }
+  }
+
+  /**
+   * 框架停止运行时不再收到生命周期回调, 清空记录, 重新启动后由 onStart 重新记录
+   */
+  void clearLiveActivities() {
+    mLiveActivities.clear();
+    if (mMainHandler != null) {
+      mMainHandler.removeCallbacks(mReapplyWindowed);
+    }
+  }
+
+  private void moveToTop(Activity activity) {
+    final int last = mLiveActivities.size() - 1;
+    if (last >= 0 && mLiveActivities.get(last).get() == activity) {
+      return;
+    }
+    for (int i = last; i >= 0; i--) {
+      if (mLiveActivities.get(i).get() == activity) {
+        mLiveActivities.add(mLiveActivities.remove(i));
+        return;
+      }
+    }
+    mLiveActivities.add(new WeakReference<>(activity));
+  }
+
+  AutoAdaptStrategy getAutoAdaptStrategy() {
+    return mAutoAdaptStrategy;
   }
 
   /**
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Activity;
+
+/**
+ * {@link AdaptListener} 收到的适配事件, 每个线程只有一个实例, 每次适配时重置后复用, 不会产生对象分配; 只有调用 {@link
+ * #getDisplayMetricsInfo()} 时才会复制一份 {@link DisplayMetricsInfo}
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class AdaptEvent {
+
+  private Class<?> mTargetClass;
+  private AdaptPlan mPlan;
+  private DisplayMetricsInfo mDisplayMetricsInfo;
+  private long mStartNanos;
+  private long mEndNanos;
+
+  AdaptEvent() {
+  }
+
+  void begin(Class<?> targetClass) {
+    mTargetClass = targetClass;
+    mPlan = null;
+    mDisplayMetricsInfo = null;
+    mStartNanos = System.nanoTime();
+    mEndNanos = 0;
+  }
+
+  void setPlan(AdaptPlan plan) {
+    mPlan = plan;
+  }
+
+  void setDisplayMetricsInfo(DisplayMetricsInfo displayMetricsInfo) {
+    mDisplayMetricsInfo = displayMetricsInfo;
+  }
+
+  void end() {
+    mEndNanos = System.nanoTime();
+  }
+
+  /**
+   * 回调结束后释放引用
+   */
+  void recycle() {
+    mTargetClass = null;
+    mPlan = null;
+    mDisplayMetricsInfo = null;
+  }
+
+  /**
+   * 需要适配的对象的类型 ({@link Activity} 或者 {@link androidx.fragment.app.Fragment})
+   */
+  public Class<?> getTargetClass() {
+    return mTargetClass;
+  }
+
+  /**
+   * {@link DefaultAutoAdaptStrategy} 选择的适配方案, 使用自定义的 {@link AutoAdaptStrategy} 时为 {@code null}
+   */
+  public AdaptPlan getPlan() {
+    return mPlan;
+  }
+
+  /**
+   * 适配后的 {@link DisplayMetricsInfo}, 取消适配或者没有经过 {@link AutoSize#autoConvertDensity(Activity, float,
+   * boolean)} 时为 {@code null}
+   * <p>
+   * 返回的是副本, 缓存中的实例被所有使用相同参数的适配共享, 修改副本不会影响之后的适配
+   */
+  public DisplayMetricsInfo getDisplayMetricsInfo() {
+    final DisplayMetricsInfo info = mDisplayMetricsInfo;
+    return info == null ? null : new DisplayMetricsInfo(info.getDensity(), info.getDensityDpi(),
+        info.getScaledDensity(), info.getXdpi());
+  }
+
+  /**
+   * 开始适配时的 {@link System#nanoTime()}
+   */
+  public long getStartNanos() {
+    return mStartNanos;
+  }
+
+  /**
+   * 适配耗时, 单位 ns, 只在 {@link AdaptListener#onAdaptEnd(AdaptEvent)} 中有效
+   */
+  public long getDurationNanos() {
+    return mEndNanos != 0 ? mEndNanos - mStartNanos : 0;
+  }
+
+  @Override
+  public String toString() {
+    return
+        "AdaptEvent{" +
+            "targetClass=" + mTargetClass +
+            ", plan=" + mPlan +
+            ", displayMetricsInfo=" + mDisplayMetricsInfo +
+            ", durationNanos=" + getDurationNanos() +
+            '}';
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.util.DisplayMetrics;
+
+/**
+ * 适配时用到的全部全局参数的不可变快照, 由 {@link AutoSizeConfig} 在任何一个参数变化后重新创建, 并通过一次 {@code volatile} 写发布
+ * <p>
+ * 这些参数分别由主线程 ({@link android.content.ComponentCallbacks}、屏幕旋转)、读取 AndroidManifest 的线程和使用者的设置方法写入,
+ * 以前适配过程中逐个读取 {@link AutoSizeConfig} 的字段, 一次适配可能读到新旧混杂的值; 现在一次适配只读取一次 {@link
+ * AutoSizeConfig#getAdaptInputs()}, 之后使用的都是同一时刻的值
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class AdaptInputs {
+
+  /**
+   * 设计图尺寸, 单位 dp, 还没有读取到时小于等于 {@code 0}
+   */
+  final int designWidthInDp;
+  final int designHeightInDp;
+  /**
+   * 屏幕宽高, 单位 px, 包含状态栏和导航栏
+   */
+  final int screenWidth;
+  final int screenHeight;
+  /**
+   * 屏幕方向, {@code true} 为纵向
+   */
+  final boolean isVertical;
+  final boolean isBaseOnWidth;
+  final boolean isUseDeviceSize;
+  /**
+   * 最初的 {@link DisplayMetrics} 中的值, {@link #initScaledDensity} 会随字体大小变化
+   */
+  final float initDensity;
+  final int initDensityDpi;
+  final float initScaledDensity;
+  final float initXdpi;
+
+  AdaptInputs(int designWidthInDp, int designHeightInDp, int screenWidth, int screenHeight,
+      boolean isVertical, boolean isBaseOnWidth, boolean isUseDeviceSize, float initDensity,
+      int initDensityDpi, float initScaledDensity, float initXdpi) {
+    this.designWidthInDp = designWidthInDp;
+    this.designHeightInDp = designHeightInDp;
+    this.screenWidth = screenWidth;
+    this.screenHeight = screenHeight;
+    this.isVertical = isVertical;
+    this.isBaseOnWidth = isBaseOnWidth;
+    this.isUseDeviceSize = isUseDeviceSize;
+    this.initDensity = initDensity;
+    this.initDensityDpi = initDensityDpi;
+    this.initScaledDensity = initScaledDensity;
+    this.initXdpi = initXdpi;
+  }
+
+  @Override
+  public String toString() {
+    return
+        "AdaptInputs{" +
+            "designWidthInDp=" + designWidthInDp +
+            ", designHeightInDp=" + designHeightInDp +
+            ", screenWidth=" + screenWidth +
+            ", screenHeight=" + screenHeight +
+            ", isVertical=" + isVertical +
+            ", isBaseOnWidth=" + isBaseOnWidth +
+            ", isUseDeviceSize=" + isUseDeviceSize +
+            ", initDensity=" + initDensity +
+            ", initDensityDpi=" + initDensityDpi +
+            ", initScaledDensity=" + initScaledDensity +
+            ", initXdpi=" + initXdpi +
+            '}';
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Activity;
+
+/**
+ * 监听每一次 {@link AutoAdaptStrategy#applyAdapt(Object, Activity)}, 可以用来把卡顿与 density 的切换关联起来, 通过 {@link
+ * AutoSizeConfig#addAdaptListener(AdaptListener)} 注册
+ * <p>
+ * 回调发生在调用 {@link AutoAdaptStrategy#applyAdapt(Object, Activity)} 的线程 (通常是主线程), 同一个线程上的 {@link
+ * AdaptEvent} 会被复用, 不要在回调之外持有它
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public interface AdaptListener {
+
+  /**
+   * 开始适配, 此时只有 {@link AdaptEvent#getTargetClass()} 和 {@link AdaptEvent#getStartNanos()} 有效
+   *
+   * @param event {@link AdaptEvent}
+   */
+  void onAdaptBegin(AdaptEvent event);
+
+  /**
+   * 适配结束
+   *
+   * @param event {@link AdaptEvent}
+   */
+  void onAdaptEnd(AdaptEvent event);
+}
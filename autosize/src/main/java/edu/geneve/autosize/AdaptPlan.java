@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Activity;
+import edu.geneve.autosize.annotation.AdaptRegistry;
+import edu.geneve.autosize.external.ExternalAdaptInfo;
+import edu.geneve.autosize.internal.CancelAdapt;
+import edu.geneve.autosize.internal.CustomAdapt;
+import edu.geneve.autosize.internal.DynamicAdapt;
+import edu.geneve.autosize.utils.AdaptEventBuffer;
+
+/**
+ * {@link AdaptPlan} 是 {@link DefaultAutoAdaptStrategy} 对某个类做出的适配决定, 创建后不可修改
+ * <p>
+ * 同一个类的适配决定只需要计算一次: 取消适配, 或者以固定的设计图尺寸和方向进行适配 {@link #TYPE_GLOBAL} 和 {@link #getSizeInDp()}
+ * 小于等于 {@code 0} 的方案会在适配时使用 {@link AutoSizeConfig} 中的全局设计图尺寸
+ * <p>
+ * {@link #TYPE_EXTERNAL} 只保存 {@link ExternalAdaptInfo} 的引用, 每次适配时重新读取其中的参数, 注册后通过 {@link
+ * ExternalAdaptInfo#setSizeInDp(float)} 和 {@link ExternalAdaptInfo#setBaseOnWidth(boolean)} 所做的修改依然生效
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class AdaptPlan {
+
+  /**
+   * 取消适配, 来自 {@link CancelAdapt} 或 {@link edu.geneve.autosize.external.ExternalAdaptManager#addCancelAdaptOfActivity(Class)}
+   */
+  public static final int TYPE_CANCEL = AdaptEventBuffer.TYPE_CANCEL;
+
+  /**
+   * 使用 {@link ExternalAdaptInfo} 适配
+   */
+  public static final int TYPE_EXTERNAL = AdaptEventBuffer.TYPE_EXTERNAL;
+
+  /**
+   * 使用 {@link CustomAdapt} 适配
+   */
+  public static final int TYPE_CUSTOM = AdaptEventBuffer.TYPE_CUSTOM;
+
+  /**
+   * 使用全局配置适配
+   */
+  public static final int TYPE_GLOBAL = AdaptEventBuffer.TYPE_GLOBAL;
+
+  /**
+   * 实现了 {@link DynamicAdapt}, 每次适配时都要重新读取 {@link CustomAdapt} 的参数
+   */
+  public static final int TYPE_DYNAMIC = 5;
+
+  static final AdaptPlan CANCEL = new AdaptPlan(TYPE_CANCEL, 0, true);
+  static final AdaptPlan GLOBAL = new AdaptPlan(TYPE_GLOBAL, 0, true);
+  static final AdaptPlan DYNAMIC = new AdaptPlan(TYPE_DYNAMIC, 0, true);
+
+  private final int mType;
+  private final float mSizeInDp;
+  private final boolean isBaseOnWidth;
+  /**
+   * 只有 {@link #TYPE_EXTERNAL} 不为 {@code null}
+   */
+  private final ExternalAdaptInfo mExternalAdaptInfo;
+
+  private AdaptPlan(int type, float sizeInDp, boolean isBaseOnWidth) {
+    this(type, sizeInDp, isBaseOnWidth, null);
+  }
+
+  private AdaptPlan(int type, float sizeInDp, boolean isBaseOnWidth,
+      ExternalAdaptInfo externalAdaptInfo) {
+    mType = type;
+    mSizeInDp = sizeInDp;
+    this.isBaseOnWidth = isBaseOnWidth;
+    mExternalAdaptInfo = externalAdaptInfo;
+  }
+
+  static AdaptPlan ofExternal(ExternalAdaptInfo info) {
+    return new AdaptPlan(TYPE_EXTERNAL, 0, true, info);
+  }
+
+  static AdaptPlan ofCustom(CustomAdapt customAdapt) {
+    return new AdaptPlan(TYPE_CUSTOM, customAdapt.getSizeInDp(), customAdapt.isBaseOnWidth());
+  }
+
+  /**
+   * {@link edu.geneve.autosize.annotation.AutoSizeAdapt} 声明的适配参数, 与 {@link CustomAdapt} 同属于自定义适配
+   */
+  static AdaptPlan ofRegistry(AdaptRegistry registry, int index) {
+    if (registry.isCancel(index)) {
+      return CANCEL;
+    }
+    return new AdaptPlan(TYPE_CUSTOM, registry.getSizeInDp(index), registry.isBaseOnWidth(index));
+  }
+
+  /**
+   * 适配方案的类型
+   *
+   * @return {@link #TYPE_CANCEL}、{@link #TYPE_EXTERNAL}、{@link #TYPE_CUSTOM}、{@link #TYPE_GLOBAL} 或 {@link
+   * #TYPE_DYNAMIC}
+   */
+  public int getType() {
+    return mType;
+  }
+
+  /**
+   * 是否取消适配
+   */
+  public boolean isCancel() {
+    return mType == TYPE_CANCEL;
+  }
+
+  /**
+   * 设计图尺寸, 单位 dp, 小于等于 {@code 0} 时使用全局设计图尺寸, 只对 {@link #TYPE_EXTERNAL} 和 {@link #TYPE_CUSTOM} 有意义
+   */
+  public float getSizeInDp() {
+    return mExternalAdaptInfo != null ? mExternalAdaptInfo.getSizeInDp() : mSizeInDp;
+  }
+
+  /**
+   * 是否以宽度为基准, 只对 {@link #TYPE_EXTERNAL} 和 {@link #TYPE_CUSTOM} 有意义
+   */
+  public boolean isBaseOnWidth() {
+    return mExternalAdaptInfo != null ? mExternalAdaptInfo.isBaseOnWidth() : isBaseOnWidth;
+  }
+
+  /**
+   * 按照此方案对 {@link Activity} 进行适配
+   *
+   * @param target 需要适配的对象, 只有 {@link #TYPE_DYNAMIC} 会用到
+   * @param activity {@link Activity}
+   */
+  void apply(Object target, Activity activity) {
+    switch (mType) {
+      case TYPE_CANCEL:
+        AutoSize.cancelAdapt(activity);
+        break;
+
+      case TYPE_GLOBAL:
+        AutoSize.autoConvertDensityOfGlobal(activity);
+        break;
+
+      case TYPE_DYNAMIC:
+        AutoSize.autoConvertDensityOfCustomAdapt(activity, (CustomAdapt) target);
+        break;
+
+      default:
+        float sizeInDp = getSizeInDp();
+        final boolean baseOnWidth = isBaseOnWidth();
+        if (sizeInDp <= 0) {
+          sizeInDp = baseOnWidth ? AutoSizeConfig.getInstance().getDesignWidthInDp()
+              : AutoSizeConfig.getInstance().getDesignHeightInDp();
+        }
+        AutoSize.autoConvertDensity(activity, sizeInDp, baseOnWidth);
+        break;
+    }
+  }
+
+  /**
+   * 计算此方案对应的 {@link DisplayMetricsInfo}, 与 {@link #apply(Object, Activity)} 使用相同的参数, 但不修改任何 {@link
+   * android.util.DisplayMetrics}
+   *
+   * @param target 需要适配的对象, 只有 {@link #TYPE_DYNAMIC} 会用到
+   * @param activity {@link Activity}, 提供窗口或屏幕的尺寸
+   * @return {@link DisplayMetricsInfo}, 取消适配时为最初的 {@link android.util.DisplayMetrics}
+   */
+  DisplayMetricsInfo resolve(Object target, Activity activity) {
+    float sizeInDp;
+    boolean baseOnWidth;
+    switch (mType) {
+      case TYPE_CANCEL:
+        return AutoSize.obtainInitDisplayMetricsInfo();
+
+      case TYPE_GLOBAL:
+        sizeInDp = 0;
+        baseOnWidth = AutoSizeConfig.getInstance().isBaseOnWidth();
+        break;
+
+      case TYPE_DYNAMIC:
+        sizeInDp = ((CustomAdapt) target).getSizeInDp();
+        baseOnWidth = ((CustomAdapt) target).isBaseOnWidth();
+        break;
+
+      default:
+        sizeInDp = getSizeInDp();
+        baseOnWidth = isBaseOnWidth();
+        break;
+    }
+    if (sizeInDp <= 0) {
+      sizeInDp = baseOnWidth ? AutoSizeConfig.getInstance().getDesignWidthInDp()
+          : AutoSizeConfig.getInstance().getDesignHeightInDp();
+    }
+    return AutoSize.obtainDisplayMetricsInfo(activity, sizeInDp, baseOnWidth);
+  }
+
+  @Override
+  public String toString() {
+    return
+        "AdaptPlan{" +
+            "type=" + mType +
+            ", sizeInDp=" + getSizeInDp() +
+            ", isBaseOnWidth=" + isBaseOnWidth() +
+            '}';
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import edu.geneve.autosize.external.ExternalAdaptManager;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 以 {@link Class} 为 key 缓存 {@link AdaptPlan}, 作用类似于 {@code ClassValue} (Android 上不可用)
+ * <p>
+ * 缓存与 {@link ExternalAdaptManager#getVersion()} 绑定, {@link ExternalAdaptManager} 发生修改后整个缓存会被替换,
+ * 已缓存的方案自动失效
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class AdaptPlanCache {
+
+  private volatile Generation mGeneration = new Generation(-1);
+
+  /**
+   * @param version 当前的 {@link ExternalAdaptManager#getVersion()}
+   * @return 没有缓存或缓存已失效时返回 {@code null}
+   */
+  AdaptPlan get(Class<?> targetClass, int version) {
+    final Generation generation = mGeneration;
+    if (generation.version != version) {
+      return null;
+    }
+    return generation.plans.get(targetClass);
+  }
+
+  void put(Class<?> targetClass, AdaptPlan plan, int version) {
+    Generation generation = mGeneration;
+    if (generation.version != version) {
+      generation = new Generation(version);
+      mGeneration = generation;
+    }
+    generation.plans.put(targetClass, plan);
+  }
+
+  void clear() {
+    mGeneration = new Generation(-1);
+  }
+
+  private static final class Generation {
+
+    final int version;
+    final Map<Class<?>, AdaptPlan> plans = new ConcurrentHashMap<>();
+
+    Generation(int version) {
+      this.version = version;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import edu.geneve.autosize.annotation.AdaptRegistry;
+import edu.geneve.autosize.utils.LogUtils;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * 持有 autosize-compiler 生成的 {@link AdaptRegistry}, 第一次使用时通过类名加载一次, 没有使用注解处理器时为空表
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class AdaptRegistryHolder {
+
+  static final AdaptRegistry EMPTY = new AdaptRegistry() {
+    @Override
+    public int size() {
+      return 0;
+    }
+
+    @Override
+    public int indexOf(Class<?> target) {
+      return -1;
+    }
+
+    @Override
+    public Class<?> getTargetClass(int index) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+
+    @Override
+    public float getSizeInDp(int index) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+
+    @Override
+    public boolean isBaseOnWidth(int index) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+
+    @Override
+    public boolean isCancel(int index) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+  };
+
+  private static final AdaptRegistry sGenerated = load();
+
+  private AdaptRegistryHolder() {
+    throw new IllegalStateException("AdaptRegistryHolder can not be instantiated!");
+  }
+
+  /**
+   * 获取生成的 {@link AdaptRegistry}
+   *
+   * @return 没有生成时返回 {@link #EMPTY}
+   */
+  static AdaptRegistry get() {
+    return sGenerated;
+  }
+
+  /**
+   * 在 {@code registry} 中查找 {@code target} 及其父类, 与 {@link java.lang.annotation.Inherited} 的语义一致
+   *
+   * @return 不在表中时返回 {@code -1}
+   */
+  static int indexOf(AdaptRegistry registry, Class<?> target) {
+    if (registry.size() == 0) {
+      return -1;
+    }
+    for (Class<?> clazz = target; clazz != null && clazz != Object.class;
+        clazz = clazz.getSuperclass()) {
+      final int index = registry.indexOf(clazz);
+      if (index >= 0) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private static AdaptRegistry load() {
+    try {
+      return (AdaptRegistry) Class.forName(AdaptRegistry.GENERATED_CLASS_NAME)
+          .getDeclaredConstructor().newInstance();
+    } catch (ClassNotFoundException e) {
+      return EMPTY;
+    } catch (NoSuchMethodException | InstantiationException | IllegalAccessException
+        | InvocationTargetException | ClassCastException e) {
+      LogUtils.w("failed to load %s", e);
+      return EMPTY;
+    }
+  }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import edu.geneve.autosize.utils.LogUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 将适配参数保存为一个紧凑的二进制快照文件, 下一次冷启动时如果设备和配置都没有变化, 直接从快照恢复设计图尺寸、屏幕宽高、系统栏高度以及已经计算过的
+ * {@link DisplayMetricsInfo}, 不再需要通过 {@link android.content.pm.PackageManager} 读取 Meta 属性, 也不需要反射测量屏幕
+ * <p>
+ * 快照中保存了一个由 {@link Build#FINGERPRINT}、安装包路径及修改时间和系统 {@link DisplayMetrics} 计算出的指纹, 指纹不一致、文件损坏或者格式版本不同时
+ * {@link #load(long, DisplayMetricsCache)} 返回 {@code null}, 调用方回退到正常的初始化流程
+ * <p>
+ * 文件格式 (大端序):
+ * <pre>
+ * int magic, int version, long fingerprint,
+ * int designWidthInDp, int designHeightInDp, int logLevel, int logBufferSize,
+ * float initDensity, int initDensityDpi, float initScaledDensity, float initXdpi,
+ * long packedScreenSize, long packedInsets, int isVertical,
+ * int entryCount, entryCount * (int sizeBits, int flags, int scaledDensityBits, int screenSize,
+ *                               float density, int densityDpi, float scaledDensity, float xdpi)
+ * </pre>
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class AdaptSnapshotStore {
+
+  private static final int MAGIC = 0x41555453;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 4 * 2 + 8 + 4 * 4 + 4 * 4 + 8 * 2 + 4 + 4;
+  private static final int ENTRY_SIZE = 4 * 8;
+
+  /**
+   * 超过这个数量的条目被视为文件损坏
+   */
+  private static final int MAX_ENTRY_COUNT = 4096;
+
+  private final File mFile;
+
+  /**
+   * 最近一次读取或写入的快照, 用来判断是否需要重新写入, 只在持有锁时访问
+   */
+  private Snapshot mLastSnapshot;
+  private int mLastEntryCount = -1;
+
+  AdaptSnapshotStore(File file) {
+    mFile = file;
+  }
+
+  /**
+   * 计算当前设备和配置的指纹, 只读取内存中已有的数据和安装包文件的修改时间, 不会发起 binder 调用
+   *
+   * @param context {@link Context}
+   * @param systemMetrics {@link android.content.res.Resources#getSystem()} 的 {@link DisplayMetrics}
+   */
+  static long fingerprint(Context context, DisplayMetrics systemMetrics) {
+    long hash = 0xcbf29ce484222325L;
+    hash = mix(hash, VERSION);
+    hash = mix(hash, Build.VERSION.SDK_INT);
+    hash = mix(hash, String.valueOf(Build.FINGERPRINT).hashCode());
+    final ApplicationInfo applicationInfo = context.getApplicationInfo();
+    if (applicationInfo != null && applicationInfo.sourceDir != null) {
+      hash = mix(hash, applicationInfo.sourceDir.hashCode());
+      final long lastModified = new File(applicationInfo.sourceDir).lastModified();
+      hash = mix(hash, (int) (lastModified >>> 32));
+      hash = mix(hash, (int) lastModified);
+    }
+    hash = mix(hash, Float.floatToIntBits(systemMetrics.density));
+    hash = mix(hash, systemMetrics.densityDpi);
+    hash = mix(hash, Float.floatToIntBits(systemMetrics.scaledDensity));
+    hash = mix(hash, Float.floatToIntBits(systemMetrics.xdpi));
+    hash = mix(hash, Math.min(systemMetrics.widthPixels, systemMetrics.heightPixels));
+    hash = mix(hash, Math.max(systemMetrics.widthPixels, systemMetrics.heightPixels));
+    return hash;
+  }
+
+  private static long mix(long hash, int value) {
+    for (int i = 0; i < 4; i++) {
+      hash ^= (value >>> (i * 8)) & 0xFF;
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /**
+   * 通过内存映射读取快照, 成功时将其中的 {@link DisplayMetricsInfo} 放入 {@code cache}
+   *
+   * @param fingerprint {@link #fingerprint(Context, DisplayMetrics)} 的结果
+   * @param cache 需要恢复的缓存
+   * @return 快照不存在、已过期或已损坏时返回 {@code null}
+   */
+  synchronized Snapshot load(long fingerprint, DisplayMetricsCache cache) {
+    if (mFile == null || !mFile.isFile()) {
+      return null;
+    }
+    RandomAccessFile file = null;
+    try {
+      file = new RandomAccessFile(mFile, "r");
+      final FileChannel channel = file.getChannel();
+      final long length = channel.size();
+      if (length < HEADER_SIZE) {
+        return discard("truncated");
+      }
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        return discard("unknown format");
+      }
+      if (buffer.getLong() != fingerprint) {
+        return discard("fingerprint changed");
+      }
+      final Snapshot snapshot = new Snapshot(fingerprint, buffer.getInt(), buffer.getInt(),
+          buffer.getInt(), buffer.getInt(), buffer.getFloat(), buffer.getInt(), buffer.getFloat(),
+          buffer.getFloat(), buffer.getLong(), buffer.getLong(), buffer.getInt() != 0);
+      final int entryCount = buffer.getInt();
+      if (entryCount < 0 || entryCount > MAX_ENTRY_COUNT
+          || length != HEADER_SIZE + (long) entryCount * ENTRY_SIZE) {
+        return discard("corrupted");
+      }
+      for (int i = 0; i < entryCount; i++) {
+        final float sizeInDp = Float.intBitsToFloat(buffer.getInt());
+        final int flags = buffer.getInt();
+        final float initScaledDensity = Float.intBitsToFloat(buffer.getInt());
+        final int screenSize = buffer.getInt();
+        cache.put(sizeInDp, (flags & 1) != 0, (flags & 2) != 0, initScaledDensity, screenSize,
+            new DisplayMetricsInfo(buffer.getFloat(), buffer.getInt(), buffer.getFloat(),
+                buffer.getFloat()));
+      }
+      mLastSnapshot = snapshot;
+      mLastEntryCount = entryCount;
+      return snapshot;
+    } catch (IOException | RuntimeException e) {
+      return discard(e.toString());
+    } finally {
+      closeQuietly(file);
+    }
+  }
+
+  /**
+   * 将快照和 {@code cache} 中的条目写入文件, 内容与上一次读取或写入的相同时不做任何事, 先写入临时文件再重命名, 不会留下写了一半的快照
+   *
+   * @return 是否写入了文件
+   */
+  synchronized boolean save(Snapshot snapshot, DisplayMetricsCache cache) {
+    if (mFile == null) {
+      return false;
+    }
+    final int cacheSize = cache.size();
+    if (cacheSize == mLastEntryCount && snapshot.contentEquals(mLastSnapshot)) {
+      return false;
+    }
+    final ByteBuffer buffer = ByteBuffer
+        .allocate(HEADER_SIZE + Math.min(cacheSize, MAX_ENTRY_COUNT) * ENTRY_SIZE);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(snapshot.fingerprint)
+        .putInt(snapshot.designWidthInDp).putInt(snapshot.designHeightInDp)
+        .putInt(snapshot.logLevel).putInt(snapshot.logBufferSize)
+        .putFloat(snapshot.initDensity).putInt(snapshot.initDensityDpi)
+        .putFloat(snapshot.initScaledDensity).putFloat(snapshot.initXdpi)
+        .putLong(snapshot.packedScreenSize).putLong(snapshot.packedInsets)
+        .putInt(snapshot.isVertical ? 1 : 0);
+    final int countPosition = buffer.position();
+    buffer.putInt(0);
+    cache.forEach(new DisplayMetricsCache.Visitor() {
+      @Override
+      public void visit(float sizeInDp, boolean isBaseOnWidth, boolean isUseDeviceSize,
+          float initScaledDensity, int screenSize, DisplayMetricsInfo info) {
+        if (buffer.remaining() < ENTRY_SIZE) {
+          return;
+        }
+        buffer.putInt(Float.floatToIntBits(sizeInDp))
+            .putInt((isBaseOnWidth ? 1 : 0) | (isUseDeviceSize ? 2 : 0))
+            .putInt(Float.floatToIntBits(initScaledDensity)).putInt(screenSize)
+            .putFloat(info.getDensity()).putInt(info.getDensityDpi())
+            .putFloat(info.getScaledDensity()).putFloat(info.getXdpi());
+      }
+    });
+    final int entryCount = (buffer.position() - HEADER_SIZE) / ENTRY_SIZE;
+    buffer.putInt(countPosition, entryCount);
+    buffer.flip();
+
+    final File tmpFile = new File(mFile.getPath() + ".tmp");
+    RandomAccessFile file = null;
+    try {
+      file = new RandomAccessFile(tmpFile, "rw");
+      file.setLength(0);
+      file.getChannel().write(buffer);
+      file.getFD().sync();
+    } catch (IOException e) {
+      LogUtils.w("failed to write adapt snapshot: %s", e);
+      tmpFile.delete();
+      return false;
+    } finally {
+      closeQuietly(file);
+    }
+    if (!tmpFile.renameTo(mFile)) {
+      tmpFile.delete();
+      return false;
+    }
+    mLastSnapshot = snapshot;
+    mLastEntryCount = entryCount;
+    if (LogUtils.isDebug()) {
+      LogUtils.d("adapt snapshot saved with %d entries", entryCount);
+    }
+    return true;
+  }
+
+  private Snapshot discard(String reason) {
+    if (LogUtils.isDebug()) {
+      LogUtils.d("adapt snapshot discarded: %s", reason);
+    }
+    mFile.delete();
+    return null;
+  }
+
+  private static void closeQuietly(RandomAccessFile file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      file.close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  /**
+   * 快照文件头中保存的适配参数, 不包含 {@link DisplayMetricsInfo} 条目
+   */
+  static final class Snapshot {
+
+    final long fingerprint;
+    final int designWidthInDp;
+    final int designHeightInDp;
+
+    /**
+     * AndroidManifest 中配置的日志级别, 没有配置时为 {@code -1}
+     */
+    final int logLevel;
+
+    /**
+     * AndroidManifest 中配置的日志缓冲区大小, 没有配置时为 {@code -1}
+     */
+    final int logBufferSize;
+    final float initDensity;
+    final int initDensityDpi;
+    final float initScaledDensity;
+    final float initXdpi;
+    final long packedScreenSize;
+
+    /**
+     * 状态栏和导航栏的高度, 还没有计算过时为 {@code -1}
+     */
+    final long packedInsets;
+    final boolean isVertical;
+
+    Snapshot(long fingerprint, int designWidthInDp, int designHeightInDp, int logLevel,
+        int logBufferSize, float initDensity, int initDensityDpi, float initScaledDensity,
+        float initXdpi, long packedScreenSize, long packedInsets, boolean isVertical) {
+      this.fingerprint = fingerprint;
+      this.designWidthInDp = designWidthInDp;
+      this.designHeightInDp = designHeightInDp;
+      this.logLevel = logLevel;
+      this.logBufferSize = logBufferSize;
+      this.initDensity = initDensity;
+      this.initDensityDpi = initDensityDpi;
+      this.initScaledDensity = initScaledDensity;
+      this.initXdpi = initXdpi;
+      this.packedScreenSize = packedScreenSize;
+      this.packedInsets = packedInsets;
+      this.isVertical = isVertical;
+    }
+
+    boolean contentEquals(Snapshot other) {
+      return other != null && fingerprint == other.fingerprint
+          && designWidthInDp == other.designWidthInDp
+          && designHeightInDp == other.designHeightInDp
+          && logLevel == other.logLevel && logBufferSize == other.logBufferSize
+          && Float.floatToIntBits(initDensity) == Float.floatToIntBits(other.initDensity)
+          && initDensityDpi == other.initDensityDpi
+          && Float.floatToIntBits(initScaledDensity)
+          == Float.floatToIntBits(other.initScaledDensity)
+          && Float.floatToIntBits(initXdpi) == Float.floatToIntBits(other.initXdpi)
+          && packedScreenSize == other.packedScreenSize
+          && packedInsets == other.packedInsets && isVertical == other.isVertical;
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Activity;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.os.Trace;
+import edu.geneve.autosize.utils.Preconditions;
+
+/**
+ * 向 {@link AdaptListener} 分发 {@link AdaptEvent}, 并在开启时用 {@link Trace} 标记适配过程, 让适配与 inflate、layout
+ * 一起出现在 systrace/Perfetto 中
+ * <p>
+ * 没有监听器并且没有开启 {@link Trace} 时, 每个埋点只有一次 {@code volatile} 读
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class AdaptTracer {
+
+  static final String SECTION_APPLY_ADAPT = "AutoSize#applyAdapt";
+  static final String SECTION_SET_DENSITY = "AutoSize#setDensity";
+
+  private static final AdaptListener[] EMPTY = new AdaptListener[0];
+
+  /**
+   * 写时复制, 分发时不需要加锁
+   */
+  private volatile AdaptListener[] mListeners = EMPTY;
+  private volatile boolean isTraceEnabled;
+
+  private final ThreadLocal<AdaptEvent> mEvents = new ThreadLocal<AdaptEvent>() {
+    @Override
+    protected AdaptEvent initialValue() {
+      return new AdaptEvent();
+    }
+  };
+
+  synchronized void addListener(AdaptListener listener) {
+    Preconditions.checkNotNull(listener, "listener is NULL");
+    final AdaptListener[] listeners = mListeners;
+    for (AdaptListener l : listeners) {
+      if (l == listener) {
+        return;
+      }
+    }
+    final AdaptListener[] newListeners = new AdaptListener[listeners.length + 1];
+    System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+    newListeners[listeners.length] = listener;
+    mListeners = newListeners;
+  }
+
+  synchronized void removeListener(AdaptListener listener) {
+    final AdaptListener[] listeners = mListeners;
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        if (listeners.length == 1) {
+          mListeners = EMPTY;
+        } else {
+          final AdaptListener[] newListeners = new AdaptListener[listeners.length - 1];
+          System.arraycopy(listeners, 0, newListeners, 0, i);
+          System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+          mListeners = newListeners;
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Android 4.3 以下没有 {@link Trace}, 开启无效
+   */
+  void setTraceEnabled(boolean enabled) {
+    isTraceEnabled = enabled && VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR2;
+  }
+
+  boolean isTraceEnabled() {
+    return isTraceEnabled;
+  }
+
+  /**
+   * 执行 {@link AutoAdaptStrategy#applyAdapt(Object, Activity)}, 前后分发 {@link AdaptEvent} 并标记 {@link
+   * #SECTION_APPLY_ADAPT}, 策略抛出异常时同样会结束标记并分发 {@link AdaptListener#onAdaptEnd(AdaptEvent)}
+   */
+  void applyAdapt(AutoAdaptStrategy strategy, Object target, Activity activity) {
+    final AdaptListener[] listeners = mListeners;
+    final boolean trace = isTraceEnabled;
+    if (listeners.length == 0 && !trace) {
+      strategy.applyAdapt(target, activity);
+      return;
+    }
+
+    AdaptEvent event = null;
+    if (listeners.length > 0) {
+      event = mEvents.get();
+      event.begin(target.getClass());
+      for (AdaptListener listener : listeners) {
+        listener.onAdaptBegin(event);
+      }
+    }
+    //isTraceEnabled 只在 Android 4.3 及以上为 true, 这里重复判断版本是为了让 lint 能够识别
+    if (trace && VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR2) {
+      Trace.beginSection(SECTION_APPLY_ADAPT);
+    }
+    try {
+      strategy.applyAdapt(target, activity);
+    } finally {
+      if (trace && VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR2) {
+        Trace.endSection();
+      }
+      if (event != null) {
+        event.end();
+        for (AdaptListener listener : listeners) {
+          listener.onAdaptEnd(event);
+        }
+        event.recycle();
+      }
+    }
+  }
+
+  /**
+   * 记录 {@link DefaultAutoAdaptStrategy} 选择的 {@link AdaptPlan}
+   */
+  void onPlanResolved(AdaptPlan plan) {
+    if (mListeners.length > 0) {
+      mEvents.get().setPlan(plan);
+    }
+  }
+
+  /**
+   * 记录 {@link AutoSize#autoConvertDensity(Activity, float, boolean)} 使用的 {@link DisplayMetricsInfo}
+   */
+  void onDisplayMetricsInfoResolved(DisplayMetricsInfo displayMetricsInfo) {
+    if (mListeners.length > 0) {
+      mEvents.get().setDisplayMetricsInfo(displayMetricsInfo);
+    }
+  }
+
+  /**
+   * 开启 {@link Trace} 时开始标记 {@code sectionName}
+   *
+   * @return 是否需要调用 {@link #endSection(boolean)}
+   */
+  boolean beginSection(String sectionName) {
+    if (isTraceEnabled && VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR2) {
+      Trace.beginSection(sectionName);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @param began {@link #beginSection(String)} 的返回值
+   */
+  void endSection(boolean began) {
+    if (began && VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR2) {
+      Trace.endSection();
+    }
+  }
+}
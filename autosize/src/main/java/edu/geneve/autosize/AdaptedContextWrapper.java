@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+import android.view.LayoutInflater;
+import edu.geneve.autosize.utils.Preconditions;
+
+/**
+ * 持有私有 {@link Resources} 的 {@link ContextWrapper}, 它的 {@link DisplayMetrics} 是 {@code base} 的副本并写入了
+ * {@link DisplayMetricsInfo}, 通过它 inflate 的 {@link android.view.View} 使用这份适配参数, 而 {@code base} 以及 {@link
+ * android.app.Application} 的 {@link DisplayMetrics} 不会被修改
+ * <p>
+ * {@link #getTheme()} 和 {@link #getSystemService(String)} 返回的 {@link Resources.Theme} 和 {@link LayoutInflater}
+ * 同样绑定在私有的 {@link Resources} 上, 否则 {@code obtainStyledAttributes} 解析出的尺寸仍然来自 {@code base}
+ * <p>
+ * 适配参数在构造时复制为不可变的副本, 不会读取主线程正在修改的 {@link DisplayMetrics}, 私有的 {@link Resources} 等成员在第一次使用时创建并安全发布,
+ * 所以可以在后台线程中使用它 inflate 布局或测量文字 (例如 AsyncLayoutInflater); 但 {@link LayoutInflater} 本身不是线程安全的,
+ * 多个线程同时 inflate 时请各自调用 {@link LayoutInflater#cloneInContext(Context)}
+ *
+ * @author Geneve
+ * @version 1.0
+ * @see AutoSize#wrapLayoutInflater(androidx.fragment.app.Fragment, LayoutInflater)
+ * @see AutoSize#createAdaptedContext(Context, float, boolean)
+ */
+
+public class AdaptedContextWrapper extends ContextWrapper {
+
+  private final float mDensity;
+  private final int mDensityDpi;
+  private final float mScaledDensity;
+  private final float mXdpi;
+
+  /**
+   * 按照 {@link edu.geneve.autosize.unit.UnitsManager} 的配置写好的目标值, 构造后不再修改
+   */
+  private final DisplayMetrics mTargetMetrics = new DisplayMetrics();
+
+  private volatile Resources mResources;
+  private volatile Resources.Theme mTheme;
+  private volatile LayoutInflater mInflater;
+
+  public AdaptedContextWrapper(Context base, DisplayMetricsInfo displayMetricsInfo) {
+    super(Preconditions.checkNotNull(base, "base is NULL"));
+    Preconditions.checkNotNull(displayMetricsInfo, "displayMetricsInfo is NULL");
+    mDensity = displayMetricsInfo.getDensity();
+    mDensityDpi = displayMetricsInfo.getDensityDpi();
+    mScaledDensity = displayMetricsInfo.getScaledDensity();
+    mXdpi = displayMetricsInfo.getXdpi();
+    AutoSize.fillDensity(mTargetMetrics, mDensity, mDensityDpi, mScaledDensity, mXdpi);
+  }
+
+  /**
+   * 写入私有 {@link Resources} 的适配参数
+   *
+   * @return 副本, 修改它不会影响当前 {@link AdaptedContextWrapper}
+   */
+  public DisplayMetricsInfo getDisplayMetricsInfo() {
+    return new DisplayMetricsInfo(mDensity, mDensityDpi, mScaledDensity, mXdpi);
+  }
+
+  @Override
+  public Resources getResources() {
+    Resources resources = mResources;
+    if (resources == null) {
+      synchronized (this) {
+        resources = mResources;
+        if (resources == null) {
+          resources = createResources(getBaseContext().getResources());
+          mResources = resources;
+        }
+      }
+    }
+    return resources;
+  }
+
+  @Override
+  public Resources.Theme getTheme() {
+    Resources.Theme theme = mTheme;
+    if (theme == null) {
+      synchronized (this) {
+        theme = mTheme;
+        if (theme == null) {
+          theme = getResources().newTheme();
+          theme.setTo(getBaseContext().getTheme());
+          mTheme = theme;
+        }
+      }
+    }
+    return theme;
+  }
+
+  @Override
+  public Object getSystemService(String name) {
+    if (LAYOUT_INFLATER_SERVICE.equals(name)) {
+      LayoutInflater inflater = mInflater;
+      if (inflater == null) {
+        synchronized (this) {
+          inflater = mInflater;
+          if (inflater == null) {
+            inflater = LayoutInflater.from(getBaseContext()).cloneInContext(this);
+            mInflater = inflater;
+          }
+        }
+      }
+      return inflater;
+    }
+    return super.getSystemService(name);
+  }
+
+  /**
+   * 与 {@code base} 共用 {@link android.content.res.AssetManager} 和 {@link android.content.res.Configuration},
+   * 资源的选择不变, 只有 {@link DisplayMetrics} 不同
+   * <p>
+   * 复制 {@code base} 的 {@link DisplayMetrics} 时主线程可能正在写入 density, 但这几个值随后都会被 {@link #mTargetMetrics}
+   * 覆盖, 所以即使复制到一半的值也不会生效
+   */
+  private Resources createResources(Resources base) {
+    final DisplayMetrics displayMetrics = new DisplayMetrics();
+    displayMetrics.setTo(base.getDisplayMetrics());
+    //minSdk 15 上没有其他方式得到拥有独立 DisplayMetrics 的 Resources, createConfigurationContext 改 densityDpi 会影响资源选择
+    @SuppressWarnings("deprecation")
+    final Resources resources = new Resources(base.getAssets(), displayMetrics,
+        base.getConfiguration());
+    //Resources 会根据 Configuration 重新计算 density, 所以构造之后再写入
+    final DisplayMetrics metrics = resources.getDisplayMetrics();
+    metrics.density = mTargetMetrics.density;
+    metrics.densityDpi = mTargetMetrics.densityDpi;
+    metrics.scaledDensity = mTargetMetrics.scaledDensity;
+    metrics.xdpi = mTargetMetrics.xdpi;
+    return resources;
+  }
+}
@@ -23,18 +23,22 @@ import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.net.Uri;
 import android.util.DisplayMetrics;
+import android.view.LayoutInflater;
 import android.view.View;
 import androidx.fragment.app.Fragment;
+import edu.geneve.autosize.engine.DensityEngine;
 import edu.geneve.autosize.external.ExternalAdaptInfo;
 import edu.geneve.autosize.external.ExternalAdaptManager;
 import edu.geneve.autosize.internal.CustomAdapt;
+import edu.geneve.autosize.unit.UnitsManager;
+import edu.geneve.autosize.utils.AutoSizeMetrics;
+import edu.geneve.autosize.utils.AutoSizeUtils;
 import edu.geneve.autosize.utils.LogUtils;
 import edu.geneve.autosize.utils.Preconditions;
+import edu.geneve.autosize.utils.DisplaySizeCache;
 import edu.geneve.autosize.utils.ScreenUtils;
-import java.lang.reflect.Field;
-import java.util.Locale;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import edu.geneve.autosize.vendor.VendorMetricsPatcher;
+import edu.geneve.autosize.vendor.VendorMetricsRegistry;
 
 /**
  * AutoSize 用于屏幕适配的核心方法在这里 核心原理源自<a href="https://mp.weixin.qq.com/s/d9QCoBP6kV9VSWvVldVVwA">今日头条官方适配方案</a>
@@ -44,7 +48,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public final class AutoSize {
 
-  private static Map<String, DisplayMetricsInfo> mCache = new ConcurrentHashMap<>();
+  private static final DisplayMetricsCache mCache = new DisplayMetricsCache();
 
   private AutoSize() {
     throw new IllegalStateException("AutoSize can not be instantiated!");
@@ -136,87 +140,108 @@ public final class AutoSize {
    */
   public static void autoConvertDensity(Activity activity, float sizeInDp, boolean isBaseOnWidth) {
     Preconditions.checkNotNull(activity, "activity is NULL");
+    final long startNanos = AutoSizeMetrics.startTimer();
+    final AutoSizeConfig config = AutoSizeConfig.getInstance();
 
-    boolean isVertical = activity.getResources().getConfiguration().orientation
-        == Configuration.ORIENTATION_PORTRAIT;
+    DisplayMetricsInfo displayMetricsInfo = obtainDisplayMetricsInfo(config, activity, sizeInDp,
+        isBaseOnWidth);
 
-    if (isVertical != AutoSizeConfig.getInstance().isVertical()) {
-      AutoSizeConfig.getInstance().setVertical(isVertical);
-      int[] screenSize = ScreenUtils.getScreenSize(activity.getApplicationContext());
-      AutoSizeConfig.getInstance().setScreenWidth(screenSize[0]);
-      AutoSizeConfig.getInstance().setScreenHeight(screenSize[1]);
-    }
-
-    int screenSize = isBaseOnWidth ? AutoSizeConfig.getInstance().getScreenWidth()
-        : AutoSizeConfig.getInstance().getScreenHeight();
-    String key = sizeInDp + "|" + isBaseOnWidth + "|" +
-        AutoSizeConfig.getInstance().isUseDeviceSize() + "|" +
-        AutoSizeConfig.getInstance().getInitScaledDensity() + "|" + screenSize;
+    config.getAdaptTracer().onDisplayMetricsInfoResolved(displayMetricsInfo);
 
-    DisplayMetricsInfo displayMetricsInfo = mCache.get(key);
+    float targetDensity = displayMetricsInfo.getDensity();
+    int targetDensityDpi = displayMetricsInfo.getDensityDpi();
+    float targetScaledDensity = displayMetricsInfo.getScaledDensity();
+    float targetXdpi = displayMetricsInfo.getXdpi();
 
-    float targetDensity = 0;
-    int targetDensityDpi = 0;
-    float targetScaledDensity = 0;
-    float targetXdpi = 0;
+    setDensity(config, activity, targetDensity, targetDensityDpi, targetScaledDensity,
+        targetXdpi);
 
-    if (displayMetricsInfo == null) {
-      if (isBaseOnWidth) {
-        targetDensity = AutoSizeConfig.getInstance().getScreenWidth() * 1.0f / sizeInDp;
-      } else {
-        targetDensity = AutoSizeConfig.getInstance().getScreenHeight() * 1.0f / sizeInDp;
-      }
-      targetScaledDensity = targetDensity * (AutoSizeConfig.getInstance()
-          .getInitScaledDensity() * 1.0f / AutoSizeConfig.getInstance().getInitDensity());
-      targetDensityDpi = (int) (targetDensity * 160);
-
-      if (isBaseOnWidth) {
-        targetXdpi = AutoSizeConfig.getInstance().getScreenWidth() * 1.0f / sizeInDp;
-      } else {
-        targetXdpi = AutoSizeConfig.getInstance().getScreenHeight() * 1.0f / sizeInDp;
-      }
+    LogUtils.adapted(activity.getClass(), sizeInDp, isBaseOnWidth, targetDensity,
+        targetDensityDpi, targetScaledDensity, targetXdpi);
+    AutoSizeMetrics.stopTimer(AutoSizeMetrics.TIMER_AUTO_CONVERT_DENSITY, startNanos);
+  }
 
-      mCache.put(key,
-          new DisplayMetricsInfo(targetDensity, targetDensityDpi, targetScaledDensity, targetXdpi));
-    } else {
-      targetDensity = displayMetricsInfo.getDensity();
-      targetDensityDpi = displayMetricsInfo.getDensityDpi();
-      targetScaledDensity = displayMetricsInfo.getScaledDensity();
-      targetXdpi = displayMetricsInfo.getXdpi();
+  /**
+   * 让 {@link Fragment} 使用自己的适配参数 inflate 布局, 而不是修改 {@link Activity} 和 {@link Application} 共用的 {@link
+   * DisplayMetrics}, 兄弟 {@link Fragment} 和宿主 {@link Activity} 都不受影响, 需要配合 {@link
+   * AutoSizeConfig#setScopedFragment(boolean)} 使用
+   * <p>
+   * 适配参数的来源与 {@link DefaultAutoAdaptStrategy} 相同 ({@link edu.geneve.autosize.annotation.AutoSizeAdapt}、{@link
+   * ExternalAdaptManager}、{@link edu.geneve.autosize.internal.CancelAdapt}、{@link CustomAdapt}、全局配置)
+   * <p>
+   * Example usage:
+   * <pre>
+   * &#64;Override
+   * public LayoutInflater onGetLayoutInflater(Bundle savedInstanceState) {
+   *   return AutoSize.wrapLayoutInflater(this, super.onGetLayoutInflater(savedInstanceState));
+   * }
+   * </pre>
+   * 布局中 {@link View#getContext()} 返回的是 {@link AdaptedContextWrapper}, 需要 {@link Activity} 时请使用 {@link
+   * Fragment#getActivity()}
+   *
+   * @param fragment {@link Fragment}
+   * @param inflater {@link Fragment} 原本的 {@link LayoutInflater}
+   * @return 使用 {@link AdaptedContextWrapper} 的 {@link LayoutInflater}, 框架已停止运行或 {@link Fragment} 还没有 attach
+   * 时返回 {@code inflater}
+   */
+  public static LayoutInflater wrapLayoutInflater(Fragment fragment, LayoutInflater inflater) {
+    Preconditions.checkNotNull(fragment, "fragment is NULL");
+    Preconditions.checkNotNull(inflater, "inflater is NULL");
+    final Activity activity = fragment.getActivity();
+    if (activity == null || AutoSizeConfig.getInstance().isStop()) {
+      return inflater;
     }
+    final DisplayMetricsInfo displayMetricsInfo = AutoSizeConfig.getInstance()
+        .getScopedAdaptStrategy().getPlan(fragment).resolve(fragment, activity);
+    return inflater.cloneInContext(
+        new AdaptedContextWrapper(inflater.getContext(), displayMetricsInfo));
+  }
 
-    setDensity(activity, targetDensity, targetDensityDpi, targetScaledDensity, targetXdpi);
-
-    LogUtils.d(String.format(Locale.ENGLISH,
-        "The %s has been adapted! \n" +
-            "%s Info: isBaseOnWidth = %s, %s = %f, targetDensity = %f, " +
-            "targetScaledDensity = %f, targetDensityDpi = %d, targetXdpi = %f",
-        activity.getClass().getName(), activity.getClass().getSimpleName(),
-        isBaseOnWidth, isBaseOnWidth ? "designWidthInDp" : "designHeightInDp",
-        sizeInDp, targetDensity, targetScaledDensity, targetDensityDpi, targetXdpi));
+  /**
+   * 获取以任意设计图尺寸适配的 {@link AdaptedContextWrapper}, 不修改任何共享的 {@link DisplayMetrics}, 可以在任意线程调用,
+   * 用于在后台线程中 inflate 布局或测量文字
+   * <p>
+   * {@code context} 是 {@link Activity} 时使用它所在的窗口尺寸 (分屏、自由窗口、副屏), 否则使用 {@link DisplaySizeCache}
+   * 中的屏幕尺寸, 方向取自 {@code context} 的 {@link Configuration}
+   *
+   * @param context 作为 base 的 {@link Context}, 通常是 {@link Activity}
+   * @param sizeInDp 设计图尺寸, 单位 dp, 小于等于 {@code 0} 时使用全局设计图尺寸
+   * @param isBaseOnWidth 是否以宽度为基准
+   * @return {@link AdaptedContextWrapper}
+   */
+  public static AdaptedContextWrapper createAdaptedContext(Context context, float sizeInDp,
+      boolean isBaseOnWidth) {
+    Preconditions.checkNotNull(context, "context is NULL");
+    if (sizeInDp <= 0) {
+      sizeInDp = isBaseOnWidth ? AutoSizeConfig.getInstance().getDesignWidthInDp()
+          : AutoSizeConfig.getInstance().getDesignHeightInDp();
+    }
+    return new AdaptedContextWrapper(context,
+        peekDisplayMetricsInfo(context, sizeInDp, isBaseOnWidth));
   }
 
   /**
    * 取消适配
    */
   public static void cancelAdapt(Activity activity) {
-    float initXdpi = AutoSizeConfig.getInstance().getInitXdpi();
-    switch (AutoSizeConfig.getInstance().getUnitsManager().getSupportSubunits()) {
-      case PT:
-        initXdpi = initXdpi / 72f;
-        break;
-
-      case MM:
-        initXdpi = initXdpi / 25.4f;
-        break;
+    final AutoSizeConfig config = AutoSizeConfig.getInstance();
+    final AdaptInputs inputs = config.getAdaptInputs();
+    float initXdpi = DensityEngine.initXdpi(inputs.initXdpi,
+        engineSubunits(config.getUnitsManager()));
+    setDensity(config, activity, inputs.initDensity, inputs.initDensityDpi,
+        inputs.initScaledDensity, initXdpi);
+  }
 
-      default:
-        break;
-    }
-    setDensity(activity, AutoSizeConfig.getInstance().getInitDensity(),
-        AutoSizeConfig.getInstance().getInitDensityDpi(),
-        AutoSizeConfig.getInstance().getInitScaledDensity(),
-        initXdpi);
+  /**
+   * 取消适配时使用的 {@link DisplayMetricsInfo}, 即最初的 {@link DisplayMetrics}
+   */
+  static DisplayMetricsInfo obtainInitDisplayMetricsInfo() {
+    final AutoSizeConfig config = AutoSizeConfig.getInstance();
+    final AdaptInputs inputs = config.getAdaptInputs();
+    float initXdpi = DensityEngine.initXdpi(inputs.initXdpi,
+        engineSubunits(config.getUnitsManager()));
+    return new DisplayMetricsInfo(inputs.initDensity, inputs.initDensityDpi,
+        inputs.initScaledDensity, initXdpi);
   }
 
   /**
@@ -229,96 +254,303 @@ public final class AutoSize {
             null, null, null, null);
   }
 
+  /**
+   * 以 {@link Activity} 当前的窗口或屏幕尺寸计算 {@link DisplayMetricsInfo}, 不会修改 {@link DisplayMetrics}
+   *
+   * @param activity {@link Activity}
+   * @param sizeInDp 设计图尺寸, 单位 dp
+   * @param isBaseOnWidth 是否以宽度为基准
+   * @return {@link DisplayMetricsInfo}
+   */
+  static DisplayMetricsInfo obtainDisplayMetricsInfo(Activity activity, float sizeInDp,
+      boolean isBaseOnWidth) {
+    return obtainDisplayMetricsInfo(AutoSizeConfig.getInstance(), activity, sizeInDp,
+        isBaseOnWidth);
+  }
+
+  private static DisplayMetricsInfo obtainDisplayMetricsInfo(AutoSizeConfig config,
+      Activity activity, float sizeInDp, boolean isBaseOnWidth) {
+    AdaptInputs inputs = config.getAdaptInputs();
+    final int screenSize;
+    final long windowSize = ScreenUtils.getWindowSize(activity);
+    if (windowSize != 0) {
+      //分屏、自由窗口或副屏, 以窗口尺寸为准, 不影响全局的屏幕尺寸和方向
+      screenSize = selectWindowSize(config, inputs, windowSize, isBaseOnWidth);
+    } else {
+      boolean isVertical = activity.getResources().getConfiguration().orientation
+          == Configuration.ORIENTATION_PORTRAIT;
+
+      //重新适配时 Activity 的 Configuration 可能还没有更新, 方向以刚发布的 AdaptInputs 为准
+      if (isVertical != inputs.isVertical && !config.isReapplying()) {
+        long packedSize = config.getDisplaySizeCache().refreshIfStale(isVertical);
+        inputs = config.updateScreen(isVertical, packedSize);
+      }
+
+      screenSize = isBaseOnWidth ? inputs.screenWidth : config.getScreenHeight(inputs);
+    }
+    return obtainDisplayMetricsInfo(inputs, sizeInDp, isBaseOnWidth, screenSize);
+  }
+
+  /**
+   * 与 {@link #obtainDisplayMetricsInfo(Activity, float, boolean)} 相同, 但只读取屏幕尺寸, 不会因为方向变化而修改 {@link
+   * AutoSizeConfig}, 可以在任意线程调用
+   */
+  static DisplayMetricsInfo peekDisplayMetricsInfo(Context context, float sizeInDp,
+      boolean isBaseOnWidth) {
+    final AutoSizeConfig config = AutoSizeConfig.getInstance();
+    final AdaptInputs inputs = config.getAdaptInputs();
+    final long windowSize = context instanceof Activity
+        ? ScreenUtils.getWindowSize((Activity) context) : 0;
+    final int screenSize;
+    if (windowSize != 0) {
+      screenSize = selectWindowSize(config, inputs, windowSize, isBaseOnWidth);
+    } else {
+      final long packedSize = config.getDisplaySizeCache().getPackedSize();
+      final boolean isVertical = context.getResources().getConfiguration().orientation
+          == Configuration.ORIENTATION_PORTRAIT;
+      final int verticalInsets = isBaseOnWidth || inputs.isUseDeviceSize ? 0
+          : config.getSystemBarInsets().getVerticalInsets();
+      screenSize = DensityEngine.selectScreenSize(DisplaySizeCache.widthOf(packedSize),
+          DisplaySizeCache.heightOf(packedSize), isVertical, isBaseOnWidth, verticalInsets);
+    }
+    return obtainDisplayMetricsInfo(inputs, sizeInDp, isBaseOnWidth, screenSize);
+  }
+
+  /**
+   * 从 {@link ScreenUtils#getWindowSize(Activity)} 中选出参与计算的宽度或高度; 窗口尺寸不包含系统栏, 与 {@link
+   * AutoSizeConfig#getScreenHeight(AdaptInputs)} 一致, 使用设备尺寸时加回系统栏的高度, 但不超过屏幕的长边
+   */
+  private static int selectWindowSize(AutoSizeConfig config, AdaptInputs inputs,
+      long windowSize, boolean isBaseOnWidth) {
+    if (isBaseOnWidth) {
+      return DisplaySizeCache.widthOf(windowSize);
+    }
+    final int windowHeight = DisplaySizeCache.heightOf(windowSize);
+    if (!inputs.isUseDeviceSize) {
+      return windowHeight;
+    }
+    return Math.min(windowHeight + config.getSystemBarInsets().getVerticalInsets(),
+        Math.max(inputs.screenWidth, inputs.screenHeight));
+  }
+
+  /**
+   * 从缓存中取出 {@link DisplayMetricsInfo}, 未命中时计算并存入缓存
+   *
+   * @param inputs 适配参数, {@link AdaptInputs#isUseDeviceSize} 和 {@link AdaptInputs#initScaledDensity} 是缓存 key 的一部分
+   * @param sizeInDp 设计图尺寸, 单位 dp
+   * @param isBaseOnWidth 是否以宽度为基准
+   * @param screenSize 参与计算的屏幕宽度或高度, 单位 px
+   * @return {@link DisplayMetricsInfo}
+   */
+  static DisplayMetricsInfo obtainDisplayMetricsInfo(AdaptInputs inputs, float sizeInDp,
+      boolean isBaseOnWidth, int screenSize) {
+    final boolean isUseDeviceSize = inputs.isUseDeviceSize;
+    final float initScaledDensity = inputs.initScaledDensity;
+    DisplayMetricsInfo displayMetricsInfo = mCache
+        .get(sizeInDp, isBaseOnWidth, isUseDeviceSize, initScaledDensity, screenSize);
+    if (displayMetricsInfo != null) {
+      AutoSizeMetrics.recordCacheHit();
+      return displayMetricsInfo;
+    }
+    AutoSizeMetrics.recordCacheMiss();
+
+    final long resolved = DensityEngine.resolve(screenSize, sizeInDp, inputs.initDensity,
+        initScaledDensity);
+    displayMetricsInfo = new DisplayMetricsInfo(DensityEngine.densityOf(resolved),
+        DensityEngine.densityDpiOf(resolved), DensityEngine.scaledDensityOf(resolved),
+        DensityEngine.xdpiOf(resolved));
+    mCache.put(sizeInDp, isBaseOnWidth, isUseDeviceSize, initScaledDensity, screenSize,
+        displayMetricsInfo);
+    return displayMetricsInfo;
+  }
+
+  /**
+   * {@link DisplayMetricsInfo} 缓存, 用于读写快照
+   */
+  static DisplayMetricsCache getCache() {
+    return mCache;
+  }
+
+  /**
+   * 清空 {@link DisplayMetricsInfo} 缓存, 下一次适配会重新计算
+   */
+  static void clearCache() {
+    mCache.clear();
+  }
+
   /**
    * 给几大 {@link DisplayMetrics} 赋值
+   * <p>
+   * {@link ActivityLifecycleCallbacksImpl} 会在 onCreate 和 onStart 中各适配一次, 所以大部分调用时目标值其实已经生效了,
+   * 如果 {@link Activity} 和 {@link Application} 的 {@link DisplayMetrics} 都已经是目标值, 则直接返回, 不再写入也不再查找
+   * {@link VendorMetricsPatcher} 提供的 {@link DisplayMetrics}; 另外 {@link Activity} 与 {@link Application} 共用同一个 {@link DisplayMetrics}
+   * 实例时只会处理一次
+   * <p>
+   * 开启 {@link AutoSizeConfig#setTraceEnabled(boolean)} 时整个过程标记为 {@value AdaptTracer#SECTION_SET_DENSITY}
    *
+   * @param config {@link AutoSizeConfig}, 调用方已经取得的实例
    * @param activity {@link Activity}
    * @param density {@link DisplayMetrics#density}
    * @param densityDpi {@link DisplayMetrics#densityDpi}
    * @param scaledDensity {@link DisplayMetrics#scaledDensity}
    * @param xdpi {@link DisplayMetrics#xdpi}
    */
-  private static void setDensity(Activity activity, float density, int densityDpi,
-      float scaledDensity, float xdpi) {
-    final DisplayMetrics activityDisplayMetrics = activity.getResources().getDisplayMetrics();
-    final DisplayMetrics appDisplayMetrics = AutoSizeConfig.getInstance().getApplication()
-        .getResources().getDisplayMetrics();
+  private static void setDensity(AutoSizeConfig config, Activity activity, float density,
+      int densityDpi, float scaledDensity, float xdpi) {
+    final AdaptTracer tracer = config.getAdaptTracer();
+    final boolean began = tracer.beginSection(AdaptTracer.SECTION_SET_DENSITY);
+    try {
+      setDensityOfResources(config, activity, density, densityDpi, scaledDensity, xdpi);
+    } finally {
+      tracer.endSection(began);
+    }
+  }
 
-    setDensity(activityDisplayMetrics, density, densityDpi, scaledDensity, xdpi);
+  private static void setDensityOfResources(AutoSizeConfig config, Activity activity,
+      float density, int densityDpi, float scaledDensity, float xdpi) {
+    final UnitsManager unitsManager = config.getUnitsManager();
+    final Resources activityResources = activity.getResources();
+    final Resources appResources = config.getApplication().getResources();
+    final DisplayMetrics activityDisplayMetrics = activityResources.getDisplayMetrics();
+    final DisplayMetrics appDisplayMetrics = appResources.getDisplayMetrics();
+    final boolean isSharedDisplayMetrics = activityDisplayMetrics == appDisplayMetrics;
+
+    if (isApplied(unitsManager, activityDisplayMetrics, density, densityDpi, scaledDensity, xdpi)
+        && (isSharedDisplayMetrics || isApplied(unitsManager, appDisplayMetrics, density,
+        densityDpi, scaledDensity, xdpi))) {
+      AutoSizeMetrics.recordDensitySkip(isSharedDisplayMetrics ? 1 : 2);
+      return;
+    }
 
-    setDensity(appDisplayMetrics, density, densityDpi, scaledDensity, xdpi);
+    setDensity(unitsManager, activityDisplayMetrics, density, densityDpi, scaledDensity, xdpi);
 
-    //兼容 MIUI
-    DisplayMetrics activityDisplayMetricsOnMIUI = getMetricsOnMiui(activity.getResources());
-    DisplayMetrics appDisplayMetricsOnMIUI = getMetricsOnMiui(
-        AutoSizeConfig.getInstance().getApplication().getResources());
+    if (!isSharedDisplayMetrics) {
+      setDensity(unitsManager, appDisplayMetrics, density, densityDpi, scaledDensity, xdpi);
+    }
 
-    if (activityDisplayMetricsOnMIUI != null) {
-      setDensity(activityDisplayMetricsOnMIUI, density, densityDpi, scaledDensity, xdpi);
+    //兼容 MIUI 等修改了 Resources 的 ROM
+    final VendorMetricsRegistry vendorMetricsRegistry = config.getVendorMetricsRegistry();
+    setVendorDensity(unitsManager, vendorMetricsRegistry, activityResources, density,
+        densityDpi, scaledDensity, xdpi);
+    if (appResources != activityResources) {
+      setVendorDensity(unitsManager, vendorMetricsRegistry, appResources, density, densityDpi,
+          scaledDensity, xdpi);
     }
+    AutoSizeUtils.invalidateConverters();
+  }
 
-    if (appDisplayMetricsOnMIUI != null) {
-      setDensity(appDisplayMetricsOnMIUI, density, densityDpi, scaledDensity, xdpi);
+  /**
+   * 给 {@link VendorMetricsPatcher} 提供的 {@link DisplayMetrics} 赋值
+   */
+  private static void setVendorDensity(UnitsManager unitsManager, VendorMetricsRegistry registry,
+      Resources resources, float density, int densityDpi, float scaledDensity, float xdpi) {
+    for (VendorMetricsPatcher patcher : registry.resolve(resources)) {
+      DisplayMetrics displayMetrics = patcher.getDisplayMetrics(resources);
+      if (displayMetrics != null) {
+        setDensity(unitsManager, displayMetrics, density, densityDpi, scaledDensity, xdpi);
+      }
     }
   }
 
   /**
-   * 赋值
+   * 获取真正写入 {@link DisplayMetrics} 的次数 (以 {@link DisplayMetrics} 对象为单位)
+   *
+   * @return 写入次数
+   */
+  public static long getDensityWriteCount() {
+    return AutoSizeMetrics.getDensityWriteCount();
+  }
+
+  /**
+   * 获取因为目标值已经生效而跳过写入 {@link DisplayMetrics} 的次数 (以 {@link DisplayMetrics} 对象为单位)
+   *
+   * @return 跳过次数
+   */
+  public static long getDensitySkipCount() {
+    return AutoSizeMetrics.getDensitySkipCount();
+  }
+
+  /**
+   * 赋值, 已经是目标值时不会写入
    *
+   * @param unitsManager {@link UnitsManager}
    * @param displayMetrics {@link DisplayMetrics}
    * @param density {@link DisplayMetrics#density}
    * @param densityDpi {@link DisplayMetrics#densityDpi}
    * @param scaledDensity {@link DisplayMetrics#scaledDensity}
    * @param xdpi {@link DisplayMetrics#xdpi}
    */
-  private static void setDensity(DisplayMetrics displayMetrics, float density, int densityDpi,
+  private static void setDensity(UnitsManager unitsManager, DisplayMetrics displayMetrics,
+      float density, int densityDpi, float scaledDensity, float xdpi) {
+    if (isApplied(unitsManager, displayMetrics, density, densityDpi, scaledDensity, xdpi)) {
+      AutoSizeMetrics.recordDensitySkip(1);
+      return;
+    }
+    AutoSizeMetrics.recordDensityWrite();
+    writeDensity(unitsManager, displayMetrics, density, densityDpi, scaledDensity, xdpi);
+  }
+
+  /**
+   * 为 {@link AdaptedContextWrapper} 私有的 {@link DisplayMetrics} 赋值, {@link UnitsManager} 不支持的单位使用最初的值,
+   * 四个值全部都会写入, 不依赖 {@code displayMetrics} 原有的值
+   */
+  static void fillDensity(DisplayMetrics displayMetrics, float density, int densityDpi,
       float scaledDensity, float xdpi) {
-    if (AutoSizeConfig.getInstance().getUnitsManager().isSupportDP()) {
+    final AutoSizeConfig config = AutoSizeConfig.getInstance();
+    final AdaptInputs inputs = config.getAdaptInputs();
+    displayMetrics.density = inputs.initDensity;
+    displayMetrics.densityDpi = inputs.initDensityDpi;
+    displayMetrics.scaledDensity = inputs.initScaledDensity;
+    displayMetrics.xdpi = inputs.initXdpi;
+    writeDensity(config.getUnitsManager(), displayMetrics, density, densityDpi, scaledDensity,
+        xdpi);
+  }
+
+  /**
+   * 按照 {@link UnitsManager} 的配置直接赋值, 不检查也不统计
+   */
+  private static void writeDensity(UnitsManager unitsManager, DisplayMetrics displayMetrics,
+      float density, int densityDpi, float scaledDensity, float xdpi) {
+    if (unitsManager.isSupportDP()) {
       displayMetrics.density = density;
       displayMetrics.densityDpi = densityDpi;
     }
-    if (AutoSizeConfig.getInstance().getUnitsManager().isSupportSP()) {
+    if (unitsManager.isSupportSP()) {
       displayMetrics.scaledDensity = scaledDensity;
     }
-    switch (AutoSizeConfig.getInstance().getUnitsManager().getSupportSubunits()) {
-      case NONE:
-        break;
+    final int subunits = engineSubunits(unitsManager);
+    if (subunits != DensityEngine.SUBUNITS_NONE) {
+      displayMetrics.xdpi = DensityEngine.displayXdpi(xdpi, subunits);
+    }
+  }
 
+  /**
+   * {@link DisplayMetrics} 中由 {@link UnitsManager} 管理的值是否已经是目标值
+   */
+  private static boolean isApplied(UnitsManager unitsManager, DisplayMetrics displayMetrics,
+      float density, int densityDpi, float scaledDensity, float xdpi) {
+    return DensityEngine.isApplied(displayMetrics.density, displayMetrics.densityDpi,
+        displayMetrics.scaledDensity, displayMetrics.xdpi, density, densityDpi, scaledDensity,
+        xdpi, unitsManager.isSupportDP(), unitsManager.isSupportSP(),
+        engineSubunits(unitsManager));
+  }
+
+  /**
+   * 当前副单位在 {@link DensityEngine} 中对应的值
+   */
+  private static int engineSubunits(UnitsManager unitsManager) {
+    switch (unitsManager.getSupportSubunits()) {
       case PT:
-        displayMetrics.xdpi = xdpi * 72f;
-        break;
+        return DensityEngine.SUBUNITS_PT;
 
       case IN:
-        displayMetrics.xdpi = xdpi;
-        break;
+        return DensityEngine.SUBUNITS_IN;
 
       case MM:
-        displayMetrics.xdpi = xdpi * 25.4f;
-        break;
+        return DensityEngine.SUBUNITS_MM;
 
       default:
-        break;
-    }
-  }
-
-  /**
-   * 解决 MIUI 更改框架导致的 MIUI7 + Android5.1.1 上出现的失效问题 (以及极少数基于这部分 MIUI 去掉 ART 然后置入 XPosed 的手机) 来源于:
-   * https://github.com/Firedamp/Rudeness/blob/master/rudeness-sdk/src/main/java/com/bulong/rudeness/RudenessScreenHelper.java#L61:5
-   *
-   * @param resources {@link Resources}
-   * @return {@link DisplayMetrics}, 可能为 {@code null}
-   */
-  private static DisplayMetrics getMetricsOnMiui(Resources resources) {
-    if ("MiuiResources".equals(resources.getClass().getSimpleName()) || "XResources"
-        .equals(resources.getClass().getSimpleName())) {
-      try {
-        Field field = Resources.class.getDeclaredField("mTmpMetrics");
-        field.setAccessible(true);
-        return (DisplayMetrics) field.get(resources);
-      } catch (Exception e) {
-        return null;
-      }
+        return DensityEngine.SUBUNITS_NONE;
     }
-    return null;
   }
 }
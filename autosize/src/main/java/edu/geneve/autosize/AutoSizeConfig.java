@@ -17,7 +17,7 @@ package edu.geneve.autosize;
 
 import android.app.Activity;
 import android.app.Application;
-import android.content.ComponentCallbacks;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
@@ -25,12 +25,33 @@ import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.util.DisplayMetrics;
+import android.util.Log;
 import androidx.fragment.app.Fragment;
+import edu.geneve.autosize.external.ExternalAdaptInfo;
 import edu.geneve.autosize.external.ExternalAdaptManager;
+import edu.geneve.autosize.inflate.PreInflateManager;
+import edu.geneve.autosize.internal.CustomAdapt;
 import edu.geneve.autosize.unit.UnitsManager;
+import edu.geneve.autosize.utils.AdaptEventBuffer;
+import edu.geneve.autosize.utils.AutoSizeMetrics;
+import edu.geneve.autosize.utils.AutoSizeUtils;
+import edu.geneve.autosize.utils.DisplaySizeCache;
 import edu.geneve.autosize.utils.LogUtils;
 import edu.geneve.autosize.utils.Preconditions;
 import edu.geneve.autosize.utils.ScreenUtils;
+import edu.geneve.autosize.utils.SystemBarInsets;
+import edu.geneve.autosize.vendor.VendorMetricsRegistry;
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AutoSize 参数配置类，给AutoSize 配置一些必要的自定义参数
@@ -44,6 +65,13 @@ public class AutoSizeConfig {
   private static volatile AutoSizeConfig sInstance;
   private static final String KEY_DESIGN_WIDTH_IN_DP = "design_width_in_dp";
   private static final String KEY_DESIGN_HEIGHT_IN_DP = "design_height_in_dp";
+  private static final String KEY_LOG_LEVEL = "autosize_log_level";
+  private static final String KEY_LOG_BUFFER_SIZE = "autosize_log_buffer_size";
+  private static final String SNAPSHOT_FILE_NAME = "autosize_snapshot.bin";
+  /**
+   * 内存紧张但还不需要全部释放时, {@link DisplayMetricsInfo} 缓存保留的条目数
+   */
+  private static final int TRIM_RETAINED_CACHE_SIZE = 4;
   private Application mApplication;
 
   /**
@@ -56,6 +84,54 @@ public class AutoSizeConfig {
    */
   private UnitsManager mUnitsManager = new UnitsManager();
 
+  /**
+   * 用于管理 MIUI 等修改了 {@link Resources} 的 ROM 的兼容逻辑
+   */
+  private VendorMetricsRegistry mVendorMetricsRegistry = new VendorMetricsRegistry();
+
+  /**
+   * 分发 {@link AdaptEvent} 以及标记 {@link android.os.Trace}
+   */
+  private final AdaptTracer mAdaptTracer = new AdaptTracer();
+
+  /**
+   * 在后台线程中预先 inflate 布局, 屏幕配置变化时清空
+   */
+  private final PreInflateManager mPreInflateManager = new PreInflateManager();
+
+  /**
+   * 缓存屏幕宽高, 只在屏幕发生变化时重新测量
+   */
+  private DisplaySizeCache mDisplaySizeCache;
+
+  /**
+   * 缓存状态栏和导航栏的高度, 只在配置变化或收到 {@link android.view.WindowInsets} 时更新
+   */
+  private SystemBarInsets mSystemBarInsets;
+
+  /**
+   * 读取 AndroidManifest 中 Meta 属性的任务, 只会执行一次, 已经通过 {@link Builder} 或快照得到设计图尺寸时为 {@code null}
+   */
+  private volatile FutureTask<Void> mMetaDataTask;
+
+  /**
+   * AndroidManifest 中配置的日志级别和日志缓冲区大小, 没有配置时为 {@code -1}, 需要写入快照
+   */
+  private int mMetaLogLevel = -1;
+  private int mMetaLogBufferSize = -1;
+  /**
+   * AndroidManifest 中配置的设计图尺寸, 没有配置或还没有读取时为 {@code 0}; 快照只保存这两个值, 运行时通过 {@link
+   * #setDesignWidthInDp(int)} 和 {@link #setDesignHeightInDp(int)} 修改的尺寸不会被当作 AndroidManifest 的配置保存下来
+   */
+  private volatile int mMetaDesignWidthInDp;
+  private volatile int mMetaDesignHeightInDp;
+
+  /**
+   * 适配参数快照, 冷启动时设备和配置没有变化则直接从快照恢复, 为 {@code null} 时表示不使用快照
+   */
+  private volatile AdaptSnapshotStore mSnapshotStore;
+  private ExecutorService mSnapshotExecutor;
+
   /**
    * 最初的 {@link DisplayMetrics#density}
    */
@@ -131,11 +207,35 @@ public class AutoSizeConfig {
    */
   private boolean isCustomFragment;
 
+  /**
+   * 是否以作用域的方式适配 {@link Fragment}, 每个 {@link Fragment} 通过 {@link AutoSize#wrapLayoutInflater} 使用自己的
+   * {@link AdaptedContextWrapper}, 不再修改 {@link Activity} 和 {@link Application} 的 {@link DisplayMetrics}
+   */
+  private volatile boolean isScopedFragment;
+
+  /**
+   * 使用自定义的 {@link AutoAdaptStrategy} 时, 作用域适配用来决定 {@link Fragment} 适配方案的默认策略
+   */
+  private DefaultAutoAdaptStrategy mScopedAdaptStrategy;
+
   /**
    * 屏幕方向, {@code true} 为纵向, {@code false} 为横向
    */
   private boolean isVertical;
 
+  /**
+   * 正在 {@link ActivityLifecycleCallbacksImpl#reapplyAdapt()} 中重新适配所有 {@link Activity}, 此时屏幕尺寸和方向已经按照新的配置更新过,
+   * 以它们为准, 不再与每个 {@link Activity} 自己的 {@link Configuration} 比较, 只在主线程访问
+   */
+  private boolean isReapplying;
+
+  /**
+   * 上面这些适配参数 (设计图尺寸、屏幕宽高和方向、{@link #isBaseOnWidth}、{@link #isUseDeviceSize}、最初的 {@link DisplayMetrics})
+   * 的不可变快照, 每次修改参数后由 {@link #publishAdaptInputs()} 重新创建, 所有读取参数的方法都从这里读取
+   */
+  private volatile AdaptInputs mAdaptInputs = new AdaptInputs(0, 0, 0, 0, false, true, true,
+      -1, 0, 0, 0);
+
   public static AutoSizeConfig getInstance() {
     if (sInstance == null) {
       synchronized (AutoSizeConfig.class) {
@@ -173,57 +273,114 @@ public class AutoSizeConfig {
     return init(application, isBaseOnWidth, null);
   }
 
-  AutoSizeConfig init(final Application application, boolean isBaseOnWidth,
+  AutoSizeConfig init(Application application, boolean isBaseOnWidth,
       AutoAdaptStrategy strategy) {
+    return init(application, isBaseOnWidth, strategy, 0, 0);
+  }
+
+  /**
+   * 设计图尺寸都大于 {@code 0} 时不再读取 AndroidManifest, 否则在第一次需要时读取
+   *
+   * @see Builder
+   */
+  AutoSizeConfig init(final Application application, boolean isBaseOnWidth,
+      AutoAdaptStrategy strategy, int designWidthInDp, int designHeightInDp) {
     Preconditions
         .checkArgument(mInitDensity == -1, "AutoSizeConfig#init() can only be called once");
     Preconditions.checkNotNull(application, "application is NULL");
+    final long startNanos = AutoSizeMetrics.startTimer();
     this.mApplication = application;
     this.isBaseOnWidth = isBaseOnWidth;
     final DisplayMetrics displayMetrics = Resources.getSystem().getDisplayMetrics();
-    getMetaData(application);
     isVertical = application.getResources().getConfiguration().orientation
         == Configuration.ORIENTATION_PORTRAIT;
-    int[] screenSize = ScreenUtils.getScreenSize(application);
-    mScreenWidth = screenSize[0];
-    mScreenHeight = screenSize[1];
-    LogUtils.d(
-        "designWidthInDp = " + mDesignWidthInDp +
-            ", designHeightInDp = " + mDesignHeightInDp +
-            ", screenWidth = " + mScreenWidth +
-            ", screenHeight = " + mScreenHeight);
+    mDisplaySizeCache = new DisplaySizeCache(application);
+    mDisplaySizeCache.startListening();
+    mSystemBarInsets = new SystemBarInsets(application, mDisplaySizeCache);
+    long packedSize;
+    AdaptSnapshotStore.Snapshot snapshot = loadSnapshot(application, displayMetrics);
+    if (snapshot != null) {
+      packedSize = restoreSnapshot(snapshot);
+    } else {
+      packedSize = mDisplaySizeCache.refresh();
+    }
+    if (designWidthInDp > 0) {
+      mDesignWidthInDp = designWidthInDp;
+    }
+    if (designHeightInDp > 0) {
+      mDesignHeightInDp = designHeightInDp;
+    }
+    if (mDesignWidthInDp <= 0 || mDesignHeightInDp <= 0) {
+      getMetaData(application);
+    }
+    mScreenWidth = DisplaySizeCache.widthOf(packedSize);
+    mScreenHeight = DisplaySizeCache.heightOf(packedSize);
+    if (LogUtils.isDebug()) {
+      LogUtils.d(
+          "designWidthInDp = " + mDesignWidthInDp +
+              ", designHeightInDp = " + mDesignHeightInDp +
+              ", screenWidth = " + mScreenWidth +
+              ", screenHeight = " + mScreenHeight);
+    }
 
     mInitDensity = displayMetrics.density;
     mInitDensityDpi = displayMetrics.densityDpi;
     mInitScaledDensity = displayMetrics.scaledDensity;
     mInitXdpi = displayMetrics.xdpi;
-    application.registerComponentCallbacks(new ComponentCallbacks() {
+    publishAdaptInputs();
+    application.registerComponentCallbacks(new ComponentCallbacks2() {
       @Override
       public void onConfigurationChanged(Configuration newConfig) {
         if (newConfig != null) {
           if (newConfig.fontScale > 0) {
             mInitScaledDensity =
                 Resources.getSystem().getDisplayMetrics().scaledDensity;
-            LogUtils.d("initScaledDensity = " + mInitScaledDensity + " on ConfigurationChanged");
+            if (LogUtils.isDebug()) {
+              LogUtils.d("initScaledDensity = " + mInitScaledDensity + " on ConfigurationChanged");
+            }
           }
           isVertical = application.getResources().getConfiguration().orientation
               == Configuration.ORIENTATION_PORTRAIT;
-          int[] screenSize = ScreenUtils.getScreenSize(application);
-          mScreenWidth = screenSize[0];
-          mScreenHeight = screenSize[1];
+          long packedSize = mDisplaySizeCache.onConfigurationChanged(isVertical);
+          mScreenWidth = DisplaySizeCache.widthOf(packedSize);
+          mScreenHeight = DisplaySizeCache.heightOf(packedSize);
+          publishAdaptInputs();
+          mSystemBarInsets.invalidate();
+          mPreInflateManager.clear();
+          AutoSizeUtils.invalidateConverters();
+          if (!isStop && mActivityLifecycleCallbacks != null) {
+            isReapplying = true;
+            try {
+              mActivityLifecycleCallbacks.reapplyAdapt();
+            } finally {
+              isReapplying = false;
+            }
+          }
         }
       }
 
       @Override
       public void onLowMemory() {
+        trimMemory(TRIM_MEMORY_COMPLETE);
+      }
+
+      @Override
+      public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+          requestSnapshotSave();
+        }
+        trimMemory(level);
       }
     });
-    LogUtils.d(
-        "initDensity = " + mInitDensity +
-            ", initScaledDensity = " + mInitScaledDensity);
+    if (LogUtils.isDebug()) {
+      LogUtils.d(
+          "initDensity = " + mInitDensity +
+              ", initScaledDensity = " + mInitScaledDensity);
+    }
     mActivityLifecycleCallbacks = new ActivityLifecycleCallbacksImpl(
         strategy == null ? new DefaultAutoAdaptStrategy() : strategy);
     application.registerActivityLifecycleCallbacks(mActivityLifecycleCallbacks);
+    AutoSizeMetrics.stopTimer(AutoSizeMetrics.TIMER_INIT, startNanos);
     return this;
   }
 
@@ -250,6 +407,7 @@ public class AutoSizeConfig {
     synchronized (AutoSizeConfig.class) {
       if (!isStop) {
         mApplication.unregisterActivityLifecycleCallbacks(mActivityLifecycleCallbacks);
+        mActivityLifecycleCallbacks.clearLiveActivities();
         AutoSize.cancelAdapt(activity);
         isStop = true;
       }
@@ -274,6 +432,7 @@ public class AutoSizeConfig {
    */
   public AutoSizeConfig setBaseOnWidth(boolean baseOnWidth) {
     isBaseOnWidth = baseOnWidth;
+    publishAdaptInputs();
     return this;
   }
 
@@ -284,6 +443,7 @@ public class AutoSizeConfig {
    */
   public AutoSizeConfig setUseDeviceSize(boolean useDeviceSize) {
     isUseDeviceSize = useDeviceSize;
+    publishAdaptInputs();
     return this;
   }
 
@@ -297,6 +457,306 @@ public class AutoSizeConfig {
     return this;
   }
 
+  /**
+   * 设置 Log 级别, 低于此级别的 Log 不会被格式化和输出, 也可以在 AndroidManifest 中通过 {@value #KEY_LOG_LEVEL} 配置
+   * debuggable 的包默认为 {@link Log#DEBUG}, 否则默认为 {@link LogUtils#NONE}
+   *
+   * @param level {@link Log#VERBOSE} ~ {@link Log#ASSERT}, 或者 {@link LogUtils#NONE}
+   */
+  public AutoSizeConfig setLogLevel(int level) {
+    LogUtils.setLevel(level);
+    return this;
+  }
+
+  /**
+   * 将适配事件记录到内存中的环形缓冲区而不是输出到 logcat, 也可以在 AndroidManifest 中通过 {@value #KEY_LOG_BUFFER_SIZE} 配置
+   *
+   * @param capacity 缓冲区容量, 小于等于 {@code 0} 时关闭缓冲区并恢复输出到 logcat
+   * @see #getLogEventBuffer()
+   */
+  public AutoSizeConfig setLogEventBufferSize(int capacity) {
+    LogUtils.setEventBuffer(capacity > 0 ? new AdaptEventBuffer(capacity) : null);
+    return this;
+  }
+
+  /**
+   * 在后台线程中预先计算全局设计图尺寸、{@link ExternalAdaptManager} 中已注册的尺寸、{@link
+   * edu.geneve.autosize.annotation.AutoSizeAdapt} 声明的尺寸以及 {@code customAdapts} 在横竖屏下的适配参数,
+   * 让页面第一次启动时直接命中缓存, 需要在 {@link #init(Application)} 之后调用, 建议在注册完 {@link ExternalAdaptInfo} 后调用
+   *
+   * @param customAdapts 需要预热的自定义适配参数, 通常与页面实现的 {@link CustomAdapt} 返回相同的值
+   * @return 完成后返回参与预热的 (尺寸, 方向) 组合数
+   */
+  public Future<Integer> preWarmDensityCache(CustomAdapt... customAdapts) {
+    final ExecutorService executor = Executors
+        .newSingleThreadExecutor(newBackgroundThreadFactory("AutoSize-PreWarm"));
+    final Future<Integer> future = preWarmDensityCache(executor, customAdapts);
+    executor.shutdown();
+    return future;
+  }
+
+  /**
+   * 与 {@link #preWarmDensityCache(CustomAdapt...)} 相同, 但在调用方提供的 {@link Executor} 上执行
+   *
+   * @param executor 执行预热的 {@link Executor}, 不要传入主线程的 {@link Executor}
+   * @param customAdapts 需要预热的自定义适配参数
+   * @return 完成后返回参与预热的 (尺寸, 方向) 组合数
+   */
+  public Future<Integer> preWarmDensityCache(Executor executor, CustomAdapt... customAdapts) {
+    Preconditions.checkNotNull(executor, "executor is NULL");
+    Preconditions.checkNotNull(mDisplaySizeCache, "Please call the AutoSizeConfig#init() first");
+    final FutureTask<Integer> task = new FutureTask<>(new DensityCacheWarmer(customAdapts));
+    executor.execute(task);
+    return task;
+  }
+
+  /**
+   * 设置最多缓存的 {@link DisplayMetricsInfo} 数量, 默认 {@value DisplayMetricsCache#DEFAULT_MAX_SIZE}, 超过时按 CLOCK 算法 (近似 LRU) 淘汰,
+   * 淘汰次数见 {@link AutoSizeMetrics.Snapshot#getCacheEvictionCount()}
+   *
+   * @param maxSize 必须大于 {@code 0}
+   */
+  public AutoSizeConfig setDensityCacheSize(int maxSize) {
+    AutoSize.getCache().setMaxSize(maxSize);
+    return this;
+  }
+
+  /**
+   * 按内存紧张程度释放 AutoSize 的缓存, 初始化后会自动在 {@link ComponentCallbacks2#onTrimMemory(int)} 和 {@link
+   * ComponentCallbacks2#onLowMemory()} 中调用, 自行管理内存时也可以主动调用
+   * <ul>
+   * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL} 及进入后台之后: {@link DisplayMetricsInfo} 缓存只保留
+   * {@value #TRIM_RETAINED_CACHE_SIZE} 个条目, 优先保留 CLOCK 指针上次经过之后命中过的条目, 不是严格按最近使用的顺序</li>
+   * <li>{@link ComponentCallbacks2#TRIM_MEMORY_COMPLETE} 及 {@code onLowMemory}: 清空 {@link DisplayMetricsInfo}
+   * 缓存、{@link PreInflateManager} 和 {@link AutoSizeUtils} 的查找表</li>
+   * </ul>
+   *
+   * @param level {@link ComponentCallbacks2} 中的 {@code TRIM_MEMORY_*}
+   */
+  public void trimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+      AutoSize.getCache().trim(0);
+      mPreInflateManager.clear();
+      AutoSizeUtils.clearLookupTables();
+    } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+        || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      AutoSize.getCache().trim(TRIM_RETAINED_CACHE_SIZE);
+    }
+  }
+
+  /**
+   * 是否使用适配参数快照, 默认开启, 关闭时会删除已有的快照文件
+   * <p>
+   * 开启时, 应用进入后台或预热完成后会把适配参数和已计算的 {@link DisplayMetricsInfo} 写入缓存目录, 下一次冷启动时设备和配置没有变化则直接从快照恢复,
+   * 跳过读取 AndroidManifest 和测量屏幕
+   *
+   * @param enabled {@code true} 为开启
+   */
+  public AutoSizeConfig setSnapshotEnabled(boolean enabled) {
+    if (enabled) {
+      if (mSnapshotStore == null && mApplication != null) {
+        mSnapshotStore = new AdaptSnapshotStore(snapshotFile(mApplication));
+      }
+    } else {
+      final AdaptSnapshotStore store = mSnapshotStore;
+      mSnapshotStore = null;
+      if (store != null && mApplication != null) {
+        final File file = snapshotFile(mApplication);
+        if (file != null) {
+          file.delete();
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * 在后台线程中写入适配参数快照, 内容没有变化时不会写文件; 缓存的条目在调用线程中复制,
+   * 随后的 {@link #trimMemory(int)} 不会让被裁剪的缓存覆盖已有的快照
+   */
+  void requestSnapshotSave() {
+    final AdaptSnapshotStore store = mSnapshotStore;
+    if (store == null) {
+      return;
+    }
+    final DisplayMetricsCache entries = AutoSize.getCache().copy();
+    synchronized (this) {
+      if (mSnapshotExecutor == null) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), newBackgroundThreadFactory("AutoSize-Snapshot"));
+        executor.allowCoreThreadTimeOut(true);
+        mSnapshotExecutor = executor;
+      }
+    }
+    mSnapshotExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        awaitMetaData();
+        store.save(createSnapshot(), entries);
+      }
+    });
+  }
+
+  private AdaptSnapshotStore.Snapshot loadSnapshot(Context context,
+      DisplayMetrics displayMetrics) {
+    final File file = snapshotFile(context);
+    if (file == null) {
+      return null;
+    }
+    mSnapshotStore = new AdaptSnapshotStore(file);
+    return mSnapshotStore
+        .load(AdaptSnapshotStore.fingerprint(context, displayMetrics), AutoSize.getCache());
+  }
+
+  /**
+   * 使用快照代替读取 AndroidManifest 和测量屏幕, 屏幕方向与保存时不同时交换宽高, 系统栏高度留到使用时再计算
+   *
+   * @return 打包后的屏幕宽高
+   */
+  private long restoreSnapshot(AdaptSnapshotStore.Snapshot snapshot) {
+    mDesignWidthInDp = mMetaDesignWidthInDp = snapshot.designWidthInDp;
+    mDesignHeightInDp = mMetaDesignHeightInDp = snapshot.designHeightInDp;
+    if (snapshot.logLevel >= 0) {
+      mMetaLogLevel = snapshot.logLevel;
+      LogUtils.setLevel(snapshot.logLevel);
+    }
+    if (snapshot.logBufferSize >= 0) {
+      mMetaLogBufferSize = snapshot.logBufferSize;
+      setLogEventBufferSize(snapshot.logBufferSize);
+    }
+    long packedSize = snapshot.packedScreenSize;
+    if (snapshot.isVertical == isVertical) {
+      if (snapshot.packedInsets >= 0) {
+        mSystemBarInsets.update(DisplaySizeCache.widthOf(snapshot.packedInsets),
+            DisplaySizeCache.heightOf(snapshot.packedInsets));
+      }
+    } else {
+      packedSize = DisplaySizeCache.pack(DisplaySizeCache.heightOf(packedSize),
+          DisplaySizeCache.widthOf(packedSize));
+    }
+    mDisplaySizeCache.restore(packedSize);
+    if (LogUtils.isDebug()) {
+      LogUtils.d("restored from adapt snapshot");
+    }
+    return packedSize;
+  }
+
+  /**
+   * 在后台线程中调用; 指纹和屏幕尺寸都在这里重新读取, 折叠屏展开或切换屏幕后保存的快照不会把旧的指纹和新的屏幕尺寸配在一起,
+   * 屏幕方向以测量结果为准, 与 {@link AdaptInputs#isVertical} 不一致时不保存系统栏高度
+   */
+  private AdaptSnapshotStore.Snapshot createSnapshot() {
+    final AdaptInputs inputs = mAdaptInputs;
+    final long fingerprint = AdaptSnapshotStore
+        .fingerprint(mApplication, Resources.getSystem().getDisplayMetrics());
+    final int[] screenSize = ScreenUtils.getScreenSize(mApplication);
+    final boolean isVertical = screenSize[0] <= screenSize[1];
+    return new AdaptSnapshotStore.Snapshot(fingerprint, mMetaDesignWidthInDp,
+        mMetaDesignHeightInDp, mMetaLogLevel, mMetaLogBufferSize, inputs.initDensity,
+        inputs.initDensityDpi, inputs.initScaledDensity, inputs.initXdpi,
+        DisplaySizeCache.pack(screenSize[0], screenSize[1]),
+        isVertical == inputs.isVertical ? mSystemBarInsets.getPackedInsets() : -1L, isVertical);
+  }
+
+  private static File snapshotFile(Context context) {
+    final File cacheDir = context.getCacheDir();
+    return cacheDir != null ? new File(cacheDir, SNAPSHOT_FILE_NAME) : null;
+  }
+
+  private static ThreadFactory newBackgroundThreadFactory(final String name) {
+    return new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      }
+    };
+  }
+
+  /**
+   * 在后台线程中提前读取 AndroidManifest 中的 Meta 属性, 不需要读取时不做任何事
+   */
+  void prefetchMetaData() {
+    final FutureTask<Void> task = mMetaDataTask;
+    if (task != null && !task.isDone()) {
+      newBackgroundThreadFactory("AutoSize-MetaData").newThread(task).start();
+    }
+  }
+
+  /**
+   * 确保 AndroidManifest 中的 Meta 属性已经读取完成, 还没有开始读取时在当前线程读取, 正在其他线程读取时等待其完成
+   */
+  void awaitMetaData() {
+    final FutureTask<Void> task = mMetaDataTask;
+    if (task == null) {
+      return;
+    }
+    task.run();
+    try {
+      task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LogUtils.e("failed to read meta-data: %s", e.getCause());
+    }
+  }
+
+  /**
+   * 获取适配事件的环形缓冲区
+   *
+   * @return 未开启时返回 {@code null}
+   * @see #setLogEventBufferSize(int)
+   */
+  public AdaptEventBuffer getLogEventBuffer() {
+    return LogUtils.getEventBuffer();
+  }
+
+  /**
+   * 注册 {@link AdaptListener}, 同一个监听器只会注册一次
+   *
+   * @param listener {@link AdaptListener}
+   */
+  public AutoSizeConfig addAdaptListener(AdaptListener listener) {
+    mAdaptTracer.addListener(listener);
+    return this;
+  }
+
+  /**
+   * 移除 {@link AdaptListener}
+   *
+   * @param listener {@link AdaptListener}
+   */
+  public AutoSizeConfig removeAdaptListener(AdaptListener listener) {
+    mAdaptTracer.removeListener(listener);
+    return this;
+  }
+
+  /**
+   * 是否用 {@link android.os.Trace#beginSection(String)} 标记 {@link AutoAdaptStrategy#applyAdapt(Object,
+   * Activity)} 和写入 {@link DisplayMetrics} 的过程, 默认关闭, Android 4.3 以下无效
+   *
+   * @param traceEnabled {@code true} 为开启
+   */
+  public AutoSizeConfig setTraceEnabled(boolean traceEnabled) {
+    mAdaptTracer.setTraceEnabled(traceEnabled);
+    return this;
+  }
+
+  /**
+   * 是否正在用 {@link android.os.Trace} 标记适配过程
+   *
+   * @return {@code true} 为开启
+   */
+  public boolean isTraceEnabled() {
+    return mAdaptTracer.isTraceEnabled();
+  }
+
+  AdaptTracer getAdaptTracer() {
+    return mAdaptTracer;
+  }
+
   /**
    * 是否让框架支持自定义 {@link Fragment} 的适配参数, 由于这个需求是比较少见的, 所以须要使用者手动开启
    *
@@ -307,6 +767,47 @@ public class AutoSizeConfig {
     return this;
   }
 
+  /**
+   * 是否以作用域的方式适配 {@link Fragment}, 默认关闭
+   * <p>
+   * 开启后 {@link FragmentLifecycleCallbacksImpl} 不再在 {@link Fragment} 创建时修改 {@link Activity} 和 {@link
+   * Application} 的 {@link DisplayMetrics}, 全局的 {@link DisplayMetrics} 每个 {@link Activity} 只按照 {@link
+   * Activity} 自己的参数写入; {@link Fragment} 需要在 {@link Fragment#onGetLayoutInflater} 中调用 {@link
+   * AutoSize#wrapLayoutInflater} 才能使用自己的适配参数, 嵌套的 {@link Fragment} 使用不同的设计图尺寸时也不会互相影响
+   *
+   * @param scopedFragment {@code true} 为开启
+   */
+  public AutoSizeConfig setScopedFragment(boolean scopedFragment) {
+    isScopedFragment = scopedFragment;
+    return this;
+  }
+
+  /**
+   * 是否以作用域的方式适配 {@link Fragment}
+   *
+   * @return {@code true} 为开启
+   */
+  public boolean isScopedFragment() {
+    return isScopedFragment;
+  }
+
+  /**
+   * 作用域适配使用的 {@link DefaultAutoAdaptStrategy}, 当前策略不是 {@link DefaultAutoAdaptStrategy} 时使用默认的适配规则
+   */
+  DefaultAutoAdaptStrategy getScopedAdaptStrategy() {
+    final AutoAdaptStrategy strategy = mActivityLifecycleCallbacks != null
+        ? mActivityLifecycleCallbacks.getAutoAdaptStrategy() : null;
+    if (strategy instanceof DefaultAutoAdaptStrategy) {
+      return (DefaultAutoAdaptStrategy) strategy;
+    }
+    synchronized (this) {
+      if (mScopedAdaptStrategy == null) {
+        mScopedAdaptStrategy = new DefaultAutoAdaptStrategy();
+      }
+      return mScopedAdaptStrategy;
+    }
+  }
+
   /**
    * 框架是否已经开启支持自定义 {@link Fragment} 的适配参数
    *
@@ -343,13 +844,52 @@ public class AutoSizeConfig {
     return mUnitsManager;
   }
 
+  /**
+   * {@link DisplaySizeCache} 缓存了屏幕的宽高, 只在屏幕发生变化时重新测量
+   *
+   * @return {@link DisplaySizeCache}
+   */
+  public DisplaySizeCache getDisplaySizeCache() {
+    Preconditions.checkNotNull(mDisplaySizeCache, "Please call the AutoSizeConfig#init() first");
+    return mDisplaySizeCache;
+  }
+
+  /**
+   * {@link SystemBarInsets} 缓存了状态栏和导航栏的高度, 可以在 {@link android.view.View.OnApplyWindowInsetsListener}
+   * 中调用 {@link SystemBarInsets#update(android.view.WindowInsets)} 使用窗口的实际尺寸
+   *
+   * @return {@link SystemBarInsets}
+   */
+  public SystemBarInsets getSystemBarInsets() {
+    Preconditions.checkNotNull(mSystemBarInsets, "Please call the AutoSizeConfig#init() first");
+    return mSystemBarInsets;
+  }
+
+  /**
+   * {@link PreInflateManager} 用来在后台线程中以适配后的 density 预先 inflate 布局
+   *
+   * @return {@link PreInflateManager}
+   */
+  public PreInflateManager getPreInflateManager() {
+    return mPreInflateManager;
+  }
+
+  /**
+   * {@link VendorMetricsRegistry} 用来管理 MIUI 等修改了 {@link Resources} 的 ROM 的兼容逻辑
+   *
+   * @return {@link VendorMetricsRegistry}
+   */
+  public VendorMetricsRegistry getVendorMetricsRegistry() {
+    return mVendorMetricsRegistry;
+  }
+
   /**
    * 返回 {@link #isBaseOnWidth}
    *
    * @return {@link #isBaseOnWidth}
    */
   public boolean isBaseOnWidth() {
-    return isBaseOnWidth;
+    return mAdaptInputs.isBaseOnWidth;
   }
 
   /**
@@ -358,7 +898,7 @@ public class AutoSizeConfig {
    * @return {@link #isUseDeviceSize}
    */
   public boolean isUseDeviceSize() {
-    return isUseDeviceSize;
+    return mAdaptInputs.isUseDeviceSize;
   }
 
   /**
@@ -367,7 +907,7 @@ public class AutoSizeConfig {
    * @return {@link #mScreenWidth}
    */
   public int getScreenWidth() {
-    return mScreenWidth;
+    return mAdaptInputs.screenWidth;
   }
 
   /**
@@ -376,9 +916,15 @@ public class AutoSizeConfig {
    * @return {@link #mScreenHeight}
    */
   public int getScreenHeight() {
-    return isUseDeviceSize() ? mScreenHeight
-        : mScreenHeight - ScreenUtils.getStatusBarHeight() - ScreenUtils
-            .getNavigationBarHeight(getApplication());
+    return getScreenHeight(mAdaptInputs);
+  }
+
+  /**
+   * 以 {@code inputs} 为准的 {@link #getScreenHeight()}
+   */
+  int getScreenHeight(AdaptInputs inputs) {
+    return inputs.isUseDeviceSize ? inputs.screenHeight
+        : inputs.screenHeight - getSystemBarInsets().getVerticalInsets();
   }
 
   /**
@@ -387,9 +933,14 @@ public class AutoSizeConfig {
    * @return {@link #mDesignWidthInDp}
    */
   public int getDesignWidthInDp() {
-    Preconditions.checkArgument(mDesignWidthInDp > 0,
+    int designWidthInDp = mAdaptInputs.designWidthInDp;
+    if (designWidthInDp <= 0) {
+      awaitMetaData();
+      designWidthInDp = mAdaptInputs.designWidthInDp;
+    }
+    Preconditions.checkArgument(designWidthInDp > 0,
         "you must set " + KEY_DESIGN_WIDTH_IN_DP + "  in your AndroidManifest file");
-    return mDesignWidthInDp;
+    return designWidthInDp;
   }
 
   /**
@@ -398,9 +949,14 @@ public class AutoSizeConfig {
    * @return {@link #mDesignHeightInDp}
    */
   public int getDesignHeightInDp() {
-    Preconditions.checkArgument(mDesignHeightInDp > 0,
+    int designHeightInDp = mAdaptInputs.designHeightInDp;
+    if (designHeightInDp <= 0) {
+      awaitMetaData();
+      designHeightInDp = mAdaptInputs.designHeightInDp;
+    }
+    Preconditions.checkArgument(designHeightInDp > 0,
         "you must set " + KEY_DESIGN_HEIGHT_IN_DP + "  in your AndroidManifest file");
-    return mDesignHeightInDp;
+    return designHeightInDp;
   }
 
   /**
@@ -409,7 +965,7 @@ public class AutoSizeConfig {
    * @return {@link #mInitDensity}
    */
   public float getInitDensity() {
-    return mInitDensity;
+    return mAdaptInputs.initDensity;
   }
 
   /**
@@ -418,7 +974,7 @@ public class AutoSizeConfig {
    * @return {@link #mInitDensityDpi}
    */
   public int getInitDensityDpi() {
-    return mInitDensityDpi;
+    return mAdaptInputs.initDensityDpi;
   }
 
   /**
@@ -427,7 +983,7 @@ public class AutoSizeConfig {
    * @return {@link #mInitScaledDensity}
    */
   public float getInitScaledDensity() {
-    return mInitScaledDensity;
+    return mAdaptInputs.initScaledDensity;
   }
 
   /**
@@ -436,7 +992,7 @@ public class AutoSizeConfig {
    * @return {@link #mInitXdpi}
    */
   public float getInitXdpi() {
-    return mInitXdpi;
+    return mAdaptInputs.initXdpi;
   }
 
   /**
@@ -445,7 +1001,16 @@ public class AutoSizeConfig {
    * @return {@code true} 为纵向, {@code false} 为横向
    */
   public boolean isVertical() {
-    return isVertical;
+    return mAdaptInputs.isVertical;
+  }
+
+  /**
+   * 是否正在因为屏幕配置变化重新适配所有 {@link Activity}
+   *
+   * @see #isReapplying
+   */
+  boolean isReapplying() {
+    return isReapplying;
   }
 
   /**
@@ -453,8 +1018,9 @@ public class AutoSizeConfig {
    *
    * @param vertical {@code true} 为纵向, {@code false} 为横向
    */
-  public void setVertical(boolean vertical) {
+  public synchronized void setVertical(boolean vertical) {
     isVertical = vertical;
+    publishAdaptInputs();
   }
 
   /**
@@ -462,8 +1028,9 @@ public class AutoSizeConfig {
    *
    * @param screenWidth 屏幕宽度
    */
-  public void setScreenWidth(int screenWidth) {
+  public synchronized void setScreenWidth(int screenWidth) {
     mScreenWidth = screenWidth;
+    publishAdaptInputs();
   }
 
   /**
@@ -471,8 +1038,45 @@ public class AutoSizeConfig {
    *
    * @param screenHeight 屏幕高度 (包含状态栏和导航栏)
    */
-  public void setScreenHeight(int screenHeight) {
+  public synchronized void setScreenHeight(int screenHeight) {
     mScreenHeight = screenHeight;
+    publishAdaptInputs();
+  }
+
+  /**
+   * 同时修改屏幕方向和宽高, 只发布一次 {@link AdaptInputs}
+   *
+   * @param vertical {@code true} 为纵向, {@code false} 为横向
+   * @param packedSize {@link DisplaySizeCache#pack(int, int)} 打包后的屏幕宽高
+   * @return 修改后的 {@link AdaptInputs}
+   */
+  synchronized AdaptInputs updateScreen(boolean vertical, long packedSize) {
+    isVertical = vertical;
+    mScreenWidth = DisplaySizeCache.widthOf(packedSize);
+    mScreenHeight = DisplaySizeCache.heightOf(packedSize);
+    return publishAdaptInputs();
+  }
+
+  /**
+   * 当前所有适配参数的快照, 一次适配中只应读取一次
+   *
+   * @return {@link AdaptInputs}
+   */
+  AdaptInputs getAdaptInputs() {
+    return mAdaptInputs;
+  }
+
+  /**
+   * 以当前的字段重新创建 {@link AdaptInputs} 并发布, 每次修改适配参数后调用; 加锁保证多个线程同时修改时, 最后一次发布一定包含所有已完成的修改
+   *
+   * @return 新的 {@link AdaptInputs}
+   */
+  private synchronized AdaptInputs publishAdaptInputs() {
+    final AdaptInputs inputs = new AdaptInputs(mDesignWidthInDp, mDesignHeightInDp, mScreenWidth,
+        mScreenHeight, isVertical, isBaseOnWidth, isUseDeviceSize, mInitDensity, mInitDensityDpi,
+        mInitScaledDensity, mInitXdpi);
+    mAdaptInputs = inputs;
+    return inputs;
   }
 
   /**
@@ -484,10 +1088,14 @@ public class AutoSizeConfig {
    *            android:value="360"/>
    * <meta-data android:name="design_height_in_dp"
    *            android:value="640"/>
+   * <meta-data android:name="autosize_log_level"
+   *            android:value="debug"/>
+   * <meta-data android:name="autosize_log_buffer_size"
+   *            android:value="64"/>
    * </pre>
    */
   private void getMetaData(final Context context) {
-    new Thread(new Runnable() {
+    mMetaDataTask = new FutureTask<>(new Runnable() {
       @Override
       public void run() {
         PackageManager packageManager = context.getPackageManager();
@@ -496,27 +1104,183 @@ public class AutoSizeConfig {
           applicationInfo = packageManager.getApplicationInfo(
               context.getPackageName(), PackageManager.GET_META_DATA);
           if (applicationInfo != null && applicationInfo.metaData != null) {
-            if (applicationInfo.metaData.containsKey(KEY_DESIGN_HEIGHT_IN_DP)) {
-              mDesignHeightInDp = (int) applicationInfo.metaData.get(KEY_DESIGN_HEIGHT_IN_DP);
+            synchronized (AutoSizeConfig.this) {
+              if (applicationInfo.metaData.containsKey(KEY_DESIGN_HEIGHT_IN_DP)) {
+                mMetaDesignHeightInDp =
+                    (int) applicationInfo.metaData.get(KEY_DESIGN_HEIGHT_IN_DP);
+                if (mDesignHeightInDp <= 0) {
+                  mDesignHeightInDp = mMetaDesignHeightInDp;
+                }
+              }
+              if (applicationInfo.metaData.containsKey(KEY_DESIGN_WIDTH_IN_DP)) {
+                mMetaDesignWidthInDp = (int) applicationInfo.metaData.get(KEY_DESIGN_WIDTH_IN_DP);
+                if (mDesignWidthInDp <= 0) {
+                  mDesignWidthInDp = mMetaDesignWidthInDp;
+                }
+              }
+              publishAdaptInputs();
+            }
+            if (applicationInfo.metaData.containsKey(KEY_LOG_LEVEL)) {
+              mMetaLogLevel = LogUtils.parseLevel(
+                  String.valueOf(applicationInfo.metaData.get(KEY_LOG_LEVEL)),
+                  LogUtils.getLevel());
+              LogUtils.setLevel(mMetaLogLevel);
             }
-            if (applicationInfo.metaData.containsKey(KEY_DESIGN_WIDTH_IN_DP)) {
-              mDesignWidthInDp = (int) applicationInfo.metaData.get(KEY_DESIGN_WIDTH_IN_DP);
+            if (applicationInfo.metaData.containsKey(KEY_LOG_BUFFER_SIZE)) {
+              mMetaLogBufferSize = (int) applicationInfo.metaData.get(KEY_LOG_BUFFER_SIZE);
+              setLogEventBufferSize(mMetaLogBufferSize);
             }
           }
         } catch (NameNotFoundException e) {
           e.printStackTrace();
         }
       }
-    }).start();
+    }, null);
   }
 
-  public AutoSizeConfig setDesignHeightInDp(int designHeightInDp) {
+  public synchronized AutoSizeConfig setDesignHeightInDp(int designHeightInDp) {
     this.mDesignHeightInDp = designHeightInDp;
+    publishAdaptInputs();
     return this;
   }
 
-  public AutoSizeConfig setDesignWidthInDp(int designWidthInDp) {
+  public synchronized AutoSizeConfig setDesignWidthInDp(int designWidthInDp) {
     this.mDesignWidthInDp = designWidthInDp;
+    publishAdaptInputs();
     return this;
   }
+
+  /**
+   * 不依赖 {@link InitProvider} 的初始化方式, 直接传入设计图尺寸, 不需要通过 {@link PackageManager} 读取 AndroidManifest
+   * <p>
+   * 使用时需要在 AndroidManifest 中移除 {@link InitProvider}, 然后在 {@link Application#onCreate()} 中初始化:
+   * <pre>
+   * <provider
+   *     android:name="edu.geneve.autosize.InitProvider"
+   *     android:authorities="${applicationId}.autosize-init-provider"
+   *     tools:node="remove"/>
+   *
+   * new AutoSizeConfig.Builder(this)
+   *     .designSizeInDp(360, 640)
+   *     .build();
+   * </pre>
+   * 没有移除 {@link InitProvider} 时, {@link #build()} 只用这里设置过的参数覆盖已有的配置, 没有设置的参数保持不变; 只设置了一个设计图尺寸时,
+   * 另一个仍会在需要时从 AndroidManifest 读取
+   */
+  public static final class Builder {
+
+    private final Application mApplication;
+    private int mDesignWidthInDp;
+    private int mDesignHeightInDp;
+    /**
+     * 以下参数为 {@code null} 表示没有设置, 初始化时使用默认值, 已经初始化过时不修改已有的配置
+     */
+    private Boolean isBaseOnWidth;
+    private Boolean isUseDeviceSize;
+    private AutoAdaptStrategy mAutoAdaptStrategy;
+    private Integer mLogLevel;
+
+    public Builder(Application application) {
+      mApplication = Preconditions.checkNotNull(application, "application is NULL");
+    }
+
+    /**
+     * 设计图的总宽度, 单位 dp, 对应 AndroidManifest 中的 {@value #KEY_DESIGN_WIDTH_IN_DP}
+     */
+    public Builder designWidthInDp(int designWidthInDp) {
+      mDesignWidthInDp = designWidthInDp;
+      return this;
+    }
+
+    /**
+     * 设计图的总高度, 单位 dp, 对应 AndroidManifest 中的 {@value #KEY_DESIGN_HEIGHT_IN_DP}
+     */
+    public Builder designHeightInDp(int designHeightInDp) {
+      mDesignHeightInDp = designHeightInDp;
+      return this;
+    }
+
+    /**
+     * 设计图的总宽度和总高度, 单位 dp
+     */
+    public Builder designSizeInDp(int designWidthInDp, int designHeightInDp) {
+      return designWidthInDp(designWidthInDp).designHeightInDp(designHeightInDp);
+    }
+
+    /**
+     * @see AutoSizeConfig#setBaseOnWidth(boolean)
+     */
+    public Builder baseOnWidth(boolean baseOnWidth) {
+      isBaseOnWidth = baseOnWidth;
+      return this;
+    }
+
+    /**
+     * 默认为 {@code false}, 与 {@link InitProvider} 相同
+     *
+     * @see AutoSizeConfig#setUseDeviceSize(boolean)
+     */
+    public Builder useDeviceSize(boolean useDeviceSize) {
+      isUseDeviceSize = useDeviceSize;
+      return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setAutoAdaptStrategy(AutoAdaptStrategy)
+     */
+    public Builder autoAdaptStrategy(AutoAdaptStrategy autoAdaptStrategy) {
+      mAutoAdaptStrategy = autoAdaptStrategy;
+      return this;
+    }
+
+    /**
+     * 默认与 {@link InitProvider} 相同, debug 包为 {@link Log#DEBUG}, 否则关闭日志
+     *
+     * @see AutoSizeConfig#setLogLevel(int)
+     */
+    public Builder logLevel(int level) {
+      mLogLevel = level;
+      return this;
+    }
+
+    /**
+     * 初始化 {@link AutoSizeConfig}, 已经初始化过时只用这里设置过的参数覆盖已有的配置
+     */
+    public AutoSizeConfig build() {
+      final AutoSizeConfig config = AutoSizeConfig.getInstance();
+      synchronized (AutoSizeConfig.class) {
+        if (config.mInitDensity == -1) {
+          if (mLogLevel != null) {
+            config.setLogLevel(mLogLevel);
+          } else {
+            boolean debuggable = (mApplication.getApplicationInfo().flags
+                & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+            config.setLogLevel(debuggable ? Log.DEBUG : LogUtils.NONE);
+          }
+          config.init(mApplication, isBaseOnWidth == null || isBaseOnWidth,
+              mAutoAdaptStrategy, mDesignWidthInDp, mDesignHeightInDp);
+          return config.setUseDeviceSize(isUseDeviceSize != null && isUseDeviceSize);
+        }
+      }
+      if (mLogLevel != null) {
+        config.setLogLevel(mLogLevel);
+      }
+      if (mDesignWidthInDp > 0) {
+        config.setDesignWidthInDp(mDesignWidthInDp);
+      }
+      if (mDesignHeightInDp > 0) {
+        config.setDesignHeightInDp(mDesignHeightInDp);
+      }
+      if (mAutoAdaptStrategy != null) {
+        config.setAutoAdaptStrategy(mAutoAdaptStrategy);
+      }
+      if (isBaseOnWidth != null) {
+        config.setBaseOnWidth(isBaseOnWidth);
+      }
+      if (isUseDeviceSize != null) {
+        config.setUseDeviceSize(isUseDeviceSize);
+      }
+      return config;
+    }
+  }
 }
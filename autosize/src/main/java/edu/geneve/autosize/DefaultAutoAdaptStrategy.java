@@ -17,11 +17,14 @@ package edu.geneve.autosize;
 
 import android.app.Activity;
 import android.app.Application;
+import edu.geneve.autosize.annotation.AdaptRegistry;
+import edu.geneve.autosize.annotation.AutoSizeAdapt;
 import edu.geneve.autosize.external.ExternalAdaptInfo;
+import edu.geneve.autosize.external.ExternalAdaptManager;
 import edu.geneve.autosize.internal.CancelAdapt;
 import edu.geneve.autosize.internal.CustomAdapt;
+import edu.geneve.autosize.internal.DynamicAdapt;
 import edu.geneve.autosize.utils.LogUtils;
-import java.util.Locale;
 
 /**
  * 屏幕适配逻辑策略默认实现类 可通过 {@link AutoSizeConfig#init(Application, boolean, AutoAdaptStrategy)} 和{@link
@@ -33,42 +36,86 @@ import java.util.Locale;
 
 public class DefaultAutoAdaptStrategy implements AutoAdaptStrategy {
 
+  /**
+   * 每个类的适配方案只计算一次, {@link ExternalAdaptManager} 发生修改后自动失效
+   */
+  private final AdaptPlanCache mPlanCache = new AdaptPlanCache();
+
+  /**
+   * 编译期由 {@link AutoSizeAdapt} 生成的适配参数表, 优先于其他来源
+   */
+  private final AdaptRegistry mAdaptRegistry;
+
+  public DefaultAutoAdaptStrategy() {
+    this(AdaptRegistryHolder.get());
+  }
+
+  /**
+   * @param adaptRegistry 代替生成的 {@link AdaptRegistry}, 为 {@code null} 时不使用注解声明的适配参数
+   */
+  public DefaultAutoAdaptStrategy(AdaptRegistry adaptRegistry) {
+    mAdaptRegistry = adaptRegistry != null ? adaptRegistry : AdaptRegistryHolder.EMPTY;
+  }
+
   @Override
   public void applyAdapt(Object target, Activity activity) {
-    if (AutoSizeConfig.getInstance().getExternalAdaptManager().isRun()) {
-      if (AutoSizeConfig.getInstance().getExternalAdaptManager().isCancelAdapt(target.getClass())) {
-        LogUtils.w(String
-            .format(Locale.ENGLISH, "%s canceled the adaptation!", target.getClass().getName()));
-        AutoSize.cancelAdapt(activity);
-        return;
+    final AdaptPlan plan = getPlan(target);
+    AutoSizeConfig.getInstance().getAdaptTracer().onPlanResolved(plan);
+
+    LogUtils.adaptDecision(plan.getType() == AdaptPlan.TYPE_DYNAMIC
+        ? AdaptPlan.TYPE_CUSTOM : plan.getType(), target.getClass());
+    plan.apply(target, activity);
+  }
+
+  /**
+   * 获取 {@code target} 的适配方案, 优先使用缓存
+   */
+  AdaptPlan getPlan(Object target) {
+    final ExternalAdaptManager manager = AutoSizeConfig.getInstance().getExternalAdaptManager();
+    final int version = manager.getVersion();
+    final Class<?> targetClass = target.getClass();
+
+    AdaptPlan plan = mPlanCache.get(targetClass, version);
+    if (plan == null) {
+      plan = resolvePlan(target, manager);
+      mPlanCache.put(targetClass, plan, version);
+    }
+    return plan;
+  }
+
+  /**
+   * 根据 {@link AutoSizeAdapt}、{@link ExternalAdaptManager}、{@link CancelAdapt}、{@link CustomAdapt} 决定适配方案,
+   * 同一个类只会执行一次
+   */
+  private AdaptPlan resolvePlan(Object target, ExternalAdaptManager manager) {
+    final int index = AdaptRegistryHolder.indexOf(mAdaptRegistry, target.getClass());
+    if (index >= 0) {
+      return AdaptPlan.ofRegistry(mAdaptRegistry, index);
+    }
+
+    if (manager.isRun()) {
+      if (manager.isCancelAdapt(target.getClass())) {
+        return AdaptPlan.CANCEL;
       } else {
-        ExternalAdaptInfo info = AutoSizeConfig.getInstance().getExternalAdaptManager()
-            .getExternalAdaptInfoOfActivity(target.getClass());
+        ExternalAdaptInfo info = manager.getExternalAdaptInfoOfActivity(target.getClass());
         if (info != null) {
-          LogUtils.d(String
-              .format(Locale.ENGLISH, "%s used %s for adaptation!", target.getClass().getName(),
-                  ExternalAdaptInfo.class.getName()));
-          AutoSize.autoConvertDensityOfExternalAdaptInfo(activity, info);
-          return;
+          return AdaptPlan.ofExternal(info);
         }
       }
     }
 
     if (target instanceof CancelAdapt) {
-      LogUtils.w(String
-          .format(Locale.ENGLISH, "%s canceled the adaptation!", target.getClass().getName()));
-      AutoSize.cancelAdapt(activity);
-      return;
+      return AdaptPlan.CANCEL;
+    }
+
+    if (target instanceof DynamicAdapt) {
+      return AdaptPlan.DYNAMIC;
     }
 
     if (target instanceof CustomAdapt) {
-      LogUtils.d(String.format(Locale.ENGLISH, "%s implemented by %s!", target.getClass().getName(),
-          CustomAdapt.class.getName()));
-      AutoSize.autoConvertDensityOfCustomAdapt(activity, (CustomAdapt) target);
+      return AdaptPlan.ofCustom((CustomAdapt) target);
     } else {
-      LogUtils.d(String.format(Locale.ENGLISH, "%s used the global configuration.",
-          target.getClass().getName()));
-      AutoSize.autoConvertDensityOfGlobal(activity);
+      return AdaptPlan.GLOBAL;
     }
   }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import edu.geneve.autosize.annotation.AdaptRegistry;
+import edu.geneve.autosize.external.ExternalAdaptInfo;
+import edu.geneve.autosize.internal.CustomAdapt;
+import edu.geneve.autosize.utils.DisplaySizeCache;
+import edu.geneve.autosize.utils.LogUtils;
+import java.util.concurrent.Callable;
+
+/**
+ * 在后台预先计算所有已知设计图尺寸在横竖屏下的 {@link DisplayMetricsInfo} 并放入 {@link AutoSize} 的缓存, 让每个页面第一次启动
+ * 以及旋转后第一次启动时都能直接命中缓存
+ * <p>
+ * 参与预热的尺寸包括 AndroidManifest 中的全局设计图宽高、{@link edu.geneve.autosize.external.ExternalAdaptManager}
+ * 中已注册的 {@link ExternalAdaptInfo}、{@link edu.geneve.autosize.annotation.AutoSizeAdapt} 声明的尺寸以及调用方声明的 {@link
+ * CustomAdapt}
+ * <p>
+ * 另一个方向的屏幕高度按照当前的系统栏高度推算, 推算不准确时只会多出一个用不到的缓存条目, 页面启动时仍会走正常的计算
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class DensityCacheWarmer implements Callable<Integer> {
+
+  private final CustomAdapt[] mCustomAdapts;
+
+  DensityCacheWarmer(CustomAdapt[] customAdapts) {
+    mCustomAdapts = customAdapts != null ? customAdapts.clone() : new CustomAdapt[0];
+  }
+
+  /**
+   * @return 参与预热的 (尺寸, 方向) 组合数
+   */
+  @Override
+  public Integer call() {
+    final AutoSizeConfig config = AutoSizeConfig.getInstance();
+    config.awaitMetaData();
+
+    final AdaptInputs inputs = config.getAdaptInputs();
+    final long packedSize = config.getDisplaySizeCache().getPackedSize();
+    final int shortSide = Math.min(DisplaySizeCache.widthOf(packedSize),
+        DisplaySizeCache.heightOf(packedSize));
+    final int longSide = Math.max(DisplaySizeCache.widthOf(packedSize),
+        DisplaySizeCache.heightOf(packedSize));
+    final int verticalInsets = inputs.isUseDeviceSize ? 0
+        : config.getSystemBarInsets().getVerticalInsets();
+
+    int count = 0;
+    count += warm(resolveSizeInDp(0, true), true, inputs, shortSide, longSide, verticalInsets);
+    count += warm(resolveSizeInDp(0, false), false, inputs, shortSide, longSide, verticalInsets);
+    for (ExternalAdaptInfo info : config.getExternalAdaptManager().getSnapshot()
+        .getExternalAdaptInfos().values()) {
+      count += warm(resolveSizeInDp(info.getSizeInDp(), info.isBaseOnWidth()),
+          info.isBaseOnWidth(), inputs, shortSide, longSide, verticalInsets);
+    }
+    final AdaptRegistry registry = AdaptRegistryHolder.get();
+    for (int i = 0; i < registry.size(); i++) {
+      if (!registry.isCancel(i)) {
+        count += warm(resolveSizeInDp(registry.getSizeInDp(i), registry.isBaseOnWidth(i)),
+            registry.isBaseOnWidth(i), inputs, shortSide, longSide, verticalInsets);
+      }
+    }
+    for (CustomAdapt customAdapt : mCustomAdapts) {
+      if (customAdapt == null) {
+        continue;
+      }
+      count += warm(resolveSizeInDp(customAdapt.getSizeInDp(), customAdapt.isBaseOnWidth()),
+          customAdapt.isBaseOnWidth(), inputs, shortSide, longSide, verticalInsets);
+    }
+    if (LogUtils.isDebug()) {
+      LogUtils.d("pre-warmed %d density cache entries", count);
+    }
+    config.requestSnapshotSave();
+    return count;
+  }
+
+  /**
+   * 分别按竖屏和横屏计算一次
+   *
+   * @return 参与计算的组合数
+   */
+  private static int warm(float sizeInDp, boolean isBaseOnWidth, AdaptInputs inputs,
+      int shortSide, int longSide, int verticalInsets) {
+    if (sizeInDp <= 0) {
+      return 0;
+    }
+    if (isBaseOnWidth) {
+      AutoSize.obtainDisplayMetricsInfo(inputs, sizeInDp, true, shortSide);
+      AutoSize.obtainDisplayMetricsInfo(inputs, sizeInDp, true, longSide);
+    } else {
+      AutoSize.obtainDisplayMetricsInfo(inputs, sizeInDp, false, longSide - verticalInsets);
+      AutoSize.obtainDisplayMetricsInfo(inputs, sizeInDp, false, shortSide - verticalInsets);
+    }
+    return 2;
+  }
+
+  /**
+   * 与 {@link AutoSize#autoConvertDensityOfCustomAdapt} 相同, 尺寸小于等于 0 时使用全局设计图尺寸
+   *
+   * @return 没有在 AndroidManifest 中设置对应的全局设计图尺寸时返回 0, 不参与预热
+   */
+  private static float resolveSizeInDp(float sizeInDp, boolean isBaseOnWidth) {
+    if (sizeInDp > 0) {
+      return sizeInDp;
+    }
+    try {
+      return isBaseOnWidth ? AutoSizeConfig.getInstance().getDesignWidthInDp()
+          : AutoSizeConfig.getInstance().getDesignHeightInDp();
+    } catch (IllegalStateException e) {
+      return 0;
+    }
+  }
+}
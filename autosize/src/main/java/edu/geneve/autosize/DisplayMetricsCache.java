@@ -0,0 +1,347 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import edu.geneve.autosize.utils.AutoSizeMetrics;
+import edu.geneve.autosize.utils.Preconditions;
+
+/**
+ * {@link DisplayMetricsCache} 是 {@link AutoSize} 用来缓存 {@link DisplayMetricsInfo} 的开放寻址哈希表
+ * <p>
+ * 以前的实现会把 sizeInDp、isBaseOnWidth、isUseDeviceSize、initScaledDensity 和屏幕尺寸拼接成 {@link String} 作为 key,
+ * 每次适配都要做浮点数转字符串并分配 {@link StringBuilder}, 现在 key 直接以基本类型保存在 {@link Entry} 中, 命中缓存时只需要几次
+ * {@code int} 比较, 不会产生任何对象分配
+ * <p>
+ * 读操作不加锁, 写操作加锁, 扩容时整张表替换后通过 {@code volatile} 发布, 由于 {@link Entry} 的 key 和 value 均为 {@code
+ * final}, 读线程看到的 {@link Entry} 一定是完整的
+ * <p>
+ * 条目数量不超过 {@link #setMaxSize(int)} (默认 {@value #DEFAULT_MAX_SIZE}), 折叠屏、自由窗口和反复修改字体大小都会产生新的 key,
+ * 超过上限时按 CLOCK 算法淘汰: 命中时只设置一次 {@link Entry#referenced} (已经设置过则不再写), 淘汰时指针跳过并清除被引用过的条目,
+ * 淘汰第一个未被引用的条目; 被淘汰的条目从开放寻址表中删除的方式是重建整张表并发布, 只发生在未命中之后, 条目很少, 开销可以忽略
+ * <p>
+ * 命中、未命中和淘汰的次数记录在 {@link AutoSizeMetrics} 中, {@link #trim(int)} 用于在内存紧张时只保留最常用的条目
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class DisplayMetricsCache {
+
+  /**
+   * 初始容量, 必须为 2 的幂
+   */
+  private static final int INITIAL_CAPACITY = 16;
+  /**
+   * 默认最多缓存的条目数
+   */
+  static final int DEFAULT_MAX_SIZE = 32;
+
+  private volatile Entry[] mTable = new Entry[INITIAL_CAPACITY];
+
+  /**
+   * 当前已存储的条目数, 只在持有锁时访问
+   */
+  private int mSize;
+  /**
+   * 最多缓存的条目数, 只在持有锁时访问
+   */
+  private int mMaxSize = DEFAULT_MAX_SIZE;
+  /**
+   * CLOCK 算法的环, 前 {@link #mSize} 个元素为当前所有条目, 只在持有锁时访问
+   */
+  private Entry[] mClock = new Entry[DEFAULT_MAX_SIZE];
+  /**
+   * CLOCK 算法的指针, 只在持有锁时访问
+   */
+  private int mHand;
+
+  /**
+   * 查找缓存
+   *
+   * @param sizeInDp 设计图尺寸, 单位 dp
+   * @param isBaseOnWidth 是否以宽度为基准
+   * @param isUseDeviceSize 是否使用设备的实际尺寸
+   * @param initScaledDensity 最初的 {@link android.util.DisplayMetrics#scaledDensity}
+   * @param screenSize 参与计算的屏幕宽度或高度, 单位 px
+   * @return 命中时返回 {@link DisplayMetricsInfo}, 否则返回 {@code null}
+   */
+  DisplayMetricsInfo get(float sizeInDp, boolean isBaseOnWidth, boolean isUseDeviceSize,
+      float initScaledDensity, int screenSize) {
+    final int sizeBits = Float.floatToIntBits(sizeInDp);
+    final int scaledDensityBits = Float.floatToIntBits(initScaledDensity);
+    final int flags = flags(isBaseOnWidth, isUseDeviceSize);
+    final Entry[] table = mTable;
+    final int mask = table.length - 1;
+    int index = hash(sizeBits, scaledDensityBits, screenSize, flags) & mask;
+    Entry entry;
+    while ((entry = table[index]) != null) {
+      if (entry.sizeBits == sizeBits && entry.screenSize == screenSize
+          && entry.scaledDensityBits == scaledDensityBits && entry.flags == flags) {
+        if (!entry.referenced) {
+          entry.referenced = true;
+        }
+        return entry.info;
+      }
+      index = (index + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * 存入缓存, 如果 key 已经存在则覆盖, 已满时先按 CLOCK 算法淘汰一个条目
+   */
+  synchronized void put(float sizeInDp, boolean isBaseOnWidth, boolean isUseDeviceSize,
+      float initScaledDensity, int screenSize, DisplayMetricsInfo info) {
+    final Entry entry = new Entry(Float.floatToIntBits(sizeInDp),
+        Float.floatToIntBits(initScaledDensity), screenSize,
+        flags(isBaseOnWidth, isUseDeviceSize), info);
+    final int existing = indexInClock(entry);
+    if (existing >= 0) {
+      mClock[existing] = entry;
+      final Entry[] table = mTable;
+      insert(table, entry);
+      mTable = table;
+      return;
+    }
+    if (mSize >= mMaxSize) {
+      mClock[advanceHand()] = entry;
+      mTable = rebuild(mClock, mSize);
+      AutoSizeMetrics.recordCacheEviction(1);
+      return;
+    }
+    mClock[mSize++] = entry;
+    Entry[] table = mTable;
+    if (mSize * 2 > table.length) {
+      table = resize(table);
+    }
+    insert(table, entry);
+    mTable = table;
+  }
+
+  /**
+   * 淘汰条目直到剩余的条目数不超过 {@code maxSize}, 不改变 {@link #setMaxSize(int)} 设置的上限
+   * <p>
+   * 先从指针处开始保留指针上次经过之后命中过的条目, 不够时再按指针顺序用其余条目补足; 只记录是否命中过而没有记录命中的先后, 所以保留的不一定是最近使用的
+   * {@code maxSize} 个条目
+   *
+   * @param maxSize 保留的条目数, {@code 0} 为全部淘汰
+   * @return 淘汰的条目数
+   */
+  synchronized int trim(int maxSize) {
+    maxSize = Math.max(maxSize, 0);
+    if (mSize <= maxSize) {
+      return 0;
+    }
+    final Entry[] clock = new Entry[mClock.length];
+    int size = 0;
+    //第一轮保留被引用过的条目, 第二轮按指针顺序用未被引用的条目补足
+    for (int pass = 0; pass < 2 && size < maxSize; pass++) {
+      for (int i = 0; i < mSize && size < maxSize; i++) {
+        final Entry entry = mClock[(mHand + i) % mSize];
+        if (entry.referenced == (pass == 0)) {
+          clock[size++] = entry;
+        }
+      }
+    }
+    final int evicted = mSize - size;
+    mClock = clock;
+    mSize = size;
+    mHand = 0;
+    mTable = rebuild(clock, size);
+    AutoSizeMetrics.recordCacheEviction(evicted);
+    return evicted;
+  }
+
+  /**
+   * 设置最多缓存的条目数, 当前条目数超过上限时立即淘汰
+   *
+   * @param maxSize 必须大于 {@code 0}
+   */
+  synchronized void setMaxSize(int maxSize) {
+    Preconditions.checkArgument(maxSize > 0, "maxSize must be > 0");
+    trim(maxSize);
+    final Entry[] clock = new Entry[maxSize];
+    System.arraycopy(mClock, 0, clock, 0, mSize);
+    mClock = clock;
+    mMaxSize = maxSize;
+  }
+
+  /**
+   * 最多缓存的条目数
+   */
+  synchronized int getMaxSize() {
+    return mMaxSize;
+  }
+
+  /**
+   * 清空缓存, 不计入淘汰次数
+   */
+  synchronized void clear() {
+    mTable = new Entry[INITIAL_CAPACITY];
+    mClock = new Entry[mMaxSize];
+    mSize = 0;
+    mHand = 0;
+  }
+
+  /**
+   * 复制当前所有条目, 之后对本缓存的淘汰和清空不影响副本, 用于在 {@link #trim(int)} 之前把条目交给后台线程
+   */
+  synchronized DisplayMetricsCache copy() {
+    final DisplayMetricsCache copy = new DisplayMetricsCache();
+    copy.mClock = mClock.clone();
+    copy.mSize = mSize;
+    copy.mMaxSize = mMaxSize;
+    copy.mHand = mHand;
+    copy.mTable = rebuild(copy.mClock, mSize);
+    return copy;
+  }
+
+  /**
+   * 当前缓存的条目数
+   */
+  synchronized int size() {
+    return mSize;
+  }
+
+  /**
+   * 不加锁地遍历当前所有条目, 遍历期间新增的条目可能不会被访问到
+   */
+  void forEach(Visitor visitor) {
+    for (Entry entry : mTable) {
+      if (entry != null) {
+        visitor.visit(Float.intBitsToFloat(entry.sizeBits), (entry.flags & 1) != 0,
+            (entry.flags & 2) != 0, Float.intBitsToFloat(entry.scaledDensityBits),
+            entry.screenSize, entry.info);
+      }
+    }
+  }
+
+  /**
+   * 转动 CLOCK 指针, 清除途经条目的引用标记, 返回第一个未被引用的条目的位置, 指针停在它的下一个位置
+   */
+  private int advanceHand() {
+    while (true) {
+      final Entry entry = mClock[mHand];
+      final int index = mHand;
+      mHand = mHand + 1 == mSize ? 0 : mHand + 1;
+      if (!entry.referenced) {
+        return index;
+      }
+      entry.referenced = false;
+    }
+  }
+
+  private int indexInClock(Entry entry) {
+    for (int i = 0; i < mSize; i++) {
+      final Entry existing = mClock[i];
+      if (existing.sizeBits == entry.sizeBits && existing.screenSize == entry.screenSize
+          && existing.scaledDensityBits == entry.scaledDensityBits
+          && existing.flags == entry.flags) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * 以 {@code entries} 的前 {@code size} 个条目重新建表, 负载因子不超过 0.5
+   */
+  private static Entry[] rebuild(Entry[] entries, int size) {
+    int capacity = INITIAL_CAPACITY;
+    while (size * 2 > capacity) {
+      capacity <<= 1;
+    }
+    final Entry[] table = new Entry[capacity];
+    for (int i = 0; i < size; i++) {
+      insert(table, entries[i]);
+    }
+    return table;
+  }
+
+  private static Entry[] resize(Entry[] oldTable) {
+    final Entry[] newTable = new Entry[oldTable.length << 1];
+    for (Entry entry : oldTable) {
+      if (entry != null) {
+        insert(newTable, entry);
+      }
+    }
+    return newTable;
+  }
+
+  /**
+   * @return {@code true} 为新增, {@code false} 为覆盖了已有的条目
+   */
+  private static boolean insert(Entry[] table, Entry entry) {
+    final int mask = table.length - 1;
+    int index = hash(entry.sizeBits, entry.scaledDensityBits, entry.screenSize, entry.flags)
+        & mask;
+    Entry existing;
+    while ((existing = table[index]) != null) {
+      if (existing.sizeBits == entry.sizeBits && existing.screenSize == entry.screenSize
+          && existing.scaledDensityBits == entry.scaledDensityBits
+          && existing.flags == entry.flags) {
+        table[index] = entry;
+        return false;
+      }
+      index = (index + 1) & mask;
+    }
+    table[index] = entry;
+    return true;
+  }
+
+  private static int flags(boolean isBaseOnWidth, boolean isUseDeviceSize) {
+    return (isBaseOnWidth ? 1 : 0) | (isUseDeviceSize ? 2 : 0);
+  }
+
+  private static int hash(int sizeBits, int scaledDensityBits, int screenSize, int flags) {
+    int h = sizeBits;
+    h = 31 * h + scaledDensityBits;
+    h = 31 * h + screenSize;
+    h = 31 * h + flags;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * {@link #forEach(Visitor)} 的回调
+   */
+  interface Visitor {
+
+    void visit(float sizeInDp, boolean isBaseOnWidth, boolean isUseDeviceSize,
+        float initScaledDensity, int screenSize, DisplayMetricsInfo info);
+  }
+
+  private static final class Entry {
+
+    final int sizeBits;
+    final int scaledDensityBits;
+    final int screenSize;
+    final int flags;
+    final DisplayMetricsInfo info;
+    /**
+     * 命中后被设置, CLOCK 指针经过时被清除; 非 {@code volatile}, 偶尔丢失一次设置只会影响淘汰的选择, 不影响正确性
+     */
+    boolean referenced;
+
+    Entry(int sizeBits, int scaledDensityBits, int screenSize, int flags,
+        DisplayMetricsInfo info) {
+      this.sizeBits = sizeBits;
+      this.scaledDensityBits = scaledDensityBits;
+      this.screenSize = screenSize;
+      this.flags = flags;
+      this.info = info;
+    }
+  }
+}
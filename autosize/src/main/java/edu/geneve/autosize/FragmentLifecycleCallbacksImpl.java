@@ -20,6 +20,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
+import edu.geneve.autosize.utils.AutoSizeMetrics;
 
 /**
  * 可用来代替在 BaseFragment 中加入适配代码的传统方式 这种方案类似于 AOP, 面向接口, 侵入性低, 方便统一管理, 扩展性强, 并且也支持适配三方库的 {@link
@@ -43,8 +44,11 @@ public class FragmentLifecycleCallbacksImpl extends FragmentManager.FragmentLife
   @Override
   public void onFragmentCreated(@NonNull FragmentManager fm, @NonNull Fragment f,
       @Nullable Bundle savedInstanceState) {
-    if (mAutoAdaptStrategy != null) {
-      mAutoAdaptStrategy.applyAdapt(f, f.getActivity());
+    //作用域适配时由 Fragment 自己的 LayoutInflater 完成, 不再修改全局的 DisplayMetrics
+    if (mAutoAdaptStrategy != null && !AutoSizeConfig.getInstance().isScopedFragment()) {
+      AutoSizeMetrics.recordApplyAdapt(AutoSizeMetrics.SOURCE_FRAGMENT_CREATED);
+      AutoSizeConfig.getInstance().getAdaptTracer()
+          .applyAdapt(mAutoAdaptStrategy, f, f.getActivity());
     }
   }
 
@@ -3,18 +3,24 @@ package edu.geneve.autosize;
 import android.app.Application;
 import android.content.ContentProvider;
 import android.content.ContentValues;
+import android.content.pm.ApplicationInfo;
 import android.database.Cursor;
 import android.net.Uri;
+import android.util.Log;
 import androidx.annotation.NonNull;
+import edu.geneve.autosize.utils.LogUtils;
 
 public class InitProvider extends ContentProvider {
 
   @Override
   public boolean onCreate() {
+    boolean debuggable = (getContext().getApplicationInfo().flags
+        & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
     AutoSizeConfig.getInstance()
-        .setLog(true)
+        .setLogLevel(debuggable ? Log.DEBUG : LogUtils.NONE)
         .init((Application) getContext().getApplicationContext())
-        .setUseDeviceSize(false);
+        .setUseDeviceSize(false)
+        .prefetchMetaData();
     return true;
   }
 
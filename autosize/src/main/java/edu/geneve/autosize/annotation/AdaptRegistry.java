@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.annotation;
+
+/**
+ * 由 autosize-compiler 根据 {@link AutoSizeAdapt} 生成的适配参数表, 生成的实现类为 {@value #GENERATED_CLASS_NAME}
+ * <p>
+ * 每个被注解的类对应一个下标, 适配参数按下标保存在基本类型数组中
+ * <p>
+ * 多个模块都使用 autosize-compiler 时, 库模块需要通过 {@code -Aautosize.moduleName=<模块名>} 指定模块名, 生成的表放在
+ * {@value #MODULE_PACKAGE} 包中, 应用模块生成的 {@value #GENERATED_CLASS_NAME} 通过 {@link CompositeAdaptRegistry}
+ * 把它们合并在一起
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public interface AdaptRegistry {
+
+  /**
+   * 生成的实现类的全限定名
+   */
+  String GENERATED_CLASS_NAME = "edu.geneve.autosize.annotation.GeneratedAdaptRegistry";
+
+  /**
+   * 库模块生成的表所在的包, 应用模块编译时从 classpath 中的这个包查找所有库模块的表
+   */
+  String MODULE_PACKAGE = "edu.geneve.autosize.annotation.modules";
+
+  /**
+   * 表中的类的数量
+   */
+  int size();
+
+  /**
+   * 查找 {@code target} 在表中的下标, 只比较类本身, 不查找父类
+   *
+   * @return 不在表中时返回 {@code -1}
+   */
+  int indexOf(Class<?> target);
+
+  /**
+   * 下标对应的类
+   */
+  Class<?> getTargetClass(int index);
+
+  /**
+   * 下标对应的 {@link AutoSizeAdapt#sizeInDp()}
+   */
+  float getSizeInDp(int index);
+
+  /**
+   * 下标对应的 {@link AutoSizeAdapt#baseOnWidth()}
+   */
+  boolean isBaseOnWidth(int index);
+
+  /**
+   * 下标对应的 {@link AutoSizeAdapt#cancel()}
+   */
+  boolean isCancel(int index);
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 在编译期声明页面的适配参数, 效果与实现 {@link edu.geneve.autosize.internal.CustomAdapt} 或 {@link
+ * edu.geneve.autosize.internal.CancelAdapt} 相同, 但适配参数由 autosize-compiler 生成到 {@link AdaptRegistry}
+ * 中, 运行时不需要反射, 也不需要调用接口方法
+ * <p>
+ * 被注解的类必须是 {@code public} 的, 嵌套类还必须是 {@code static} 的, 子类会继承父类的注解
+ * <pre>
+ * dependencies {
+ *     annotationProcessor project(':autosize-compiler')
+ * }
+ * </pre>
+ * 库模块使用时还需要传入 {@code -Aautosize.moduleName=<模块名>}, 见 {@link AdaptRegistry}
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+@Documented
+@Inherited
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface AutoSizeAdapt {
+
+  /**
+   * 设计图上的设计尺寸, 单位 dp, 小于等于 {@code 0} 时使用 AndroidManifest 中的全局设计图尺寸
+   */
+  float sizeInDp() default 0;
+
+  /**
+   * 是否按照屏幕宽度进行等比例适配, {@code false} 为按照高度
+   */
+  boolean baseOnWidth() default true;
+
+  /**
+   * 是否取消适配, 为 {@code true} 时忽略 {@link #sizeInDp()} 和 {@link #baseOnWidth()}
+   */
+  boolean cancel() default false;
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.annotation;
+
+/**
+ * 把多个模块生成的 {@link AdaptRegistry} 合并为一张表, 由 autosize-compiler 在应用模块生成的 {@value #GENERATED_CLASS_NAME}
+ * 继承, 不需要手动使用
+ * <p>
+ * 构造时把各个模块的参数复制到同一组数组中, 查找方式与单个模块生成的表相同; 同一个类出现在多个表中时以排在前面的为准,
+ * 应用模块自己的表总是排在第一个
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public class CompositeAdaptRegistry implements AdaptRegistry {
+
+  private final Class<?>[] mClasses;
+  private final float[] mSizesInDp;
+  /**
+   * bit 0: baseOnWidth, bit 1: cancel
+   */
+  private final byte[] mFlags;
+
+  protected CompositeAdaptRegistry(AdaptRegistry... registries) {
+    int size = 0;
+    for (AdaptRegistry registry : registries) {
+      size += registry.size();
+    }
+    mClasses = new Class<?>[size];
+    mSizesInDp = new float[size];
+    mFlags = new byte[size];
+    int index = 0;
+    for (AdaptRegistry registry : registries) {
+      for (int i = 0; i < registry.size(); i++, index++) {
+        mClasses[index] = registry.getTargetClass(i);
+        mSizesInDp[index] = registry.getSizeInDp(i);
+        mFlags[index] = (byte) ((registry.isBaseOnWidth(i) ? 1 : 0)
+            | (registry.isCancel(i) ? 2 : 0));
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return mClasses.length;
+  }
+
+  @Override
+  public int indexOf(Class<?> target) {
+    for (int i = 0; i < mClasses.length; i++) {
+      if (mClasses[i] == target) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public Class<?> getTargetClass(int index) {
+    return mClasses[index];
+  }
+
+  @Override
+  public float getSizeInDp(int index) {
+    return mSizesInDp[index];
+  }
+
+  @Override
+  public boolean isBaseOnWidth(int index) {
+    return (mFlags[index] & 1) != 0;
+  }
+
+  @Override
+  public boolean isCancel(int index) {
+    return (mFlags[index] & 2) != 0;
+  }
+}
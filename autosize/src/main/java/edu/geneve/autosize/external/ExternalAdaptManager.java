@@ -19,16 +19,22 @@ import android.app.Activity;
 import androidx.fragment.app.Fragment;
 import edu.geneve.autosize.AutoSizeConfig;
 import edu.geneve.autosize.utils.Preconditions;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * {@link ExternalAdaptManager} 管理第三方库的适配信息和状态，通过 {@link AutoSizeConfig#getExternalAdaptManager()}
  * 获取，不可自己 new 实例 AutoSize 通过实现接口的方式让每个 {@link Activity} 都具有自定义适配参数的功能，实现自定义适配效果
  * 但是远程以来的第三方库不能修改源代码，也不能让第三方的 {@link Activity} 实现接口 {@link ExternalAdaptManager}
  * 用于解决该问题，项目初始化的时将对应的第三方 {@link Activity} 传入其中即可
+ * <p>
+ * 所有适配信息保存在不可变的 {@link Snapshot} 中, 以 {@link Class} 本身 (而不是类名) 作为 key, 读操作不加锁, O(1) 查找且不产生对象分配
+ * 写操作只修改加锁保护的暂存集合并让已发布的 {@link Snapshot} 失效, 下一次读取时才复制一份新的 {@link Snapshot} 并通过 {@code
+ * volatile} 发布, 所以连续的链式调用只会复制一次; 需要注册大量 {@link Activity} 时也可以使用 {@link
+ * #addCancelAdaptOfActivities(Class[])} 和 {@link #addExternalAdaptInfoOfActivities(Map)}
  *
  * @author Geneve
  * @version 1.0
@@ -36,27 +42,47 @@ import java.util.Map;
 
 public class ExternalAdaptManager {
 
-  private List<String> mCancelAdaptList;
-  private Map<String, ExternalAdaptInfo> mExternalAdaptInfo;
+  /**
+   * 已发布的适配信息, {@code null} 表示暂存集合有了新的修改, 需要在下一次读取时重新发布
+   */
+  private volatile Snapshot mSnapshot = Snapshot.EMPTY;
+
+  /**
+   * 暂存的适配信息, 只在持有锁时访问
+   */
+  private final Set<Class<?>> mCancelAdaptClasses = new HashSet<>();
+  private final Map<Class<?>, ExternalAdaptInfo> mExternalAdaptInfos = new HashMap<>();
   private boolean isRun;
+  private int mVersion;
 
   /**
    * 将不需要适配的第三方库(但不局限于三方库) {@link Activity} 添加进来 , 即可让该 {@link Activity} 的适配效果失效
    * <p>
-   * 支持链式调用，如： {@link ExternalAdaptManager#addCancelAdaptOfActivity(Class)#addCancelAdaptOfActivity(Class)}
+   * 支持链式调用，如： {@link ExternalAdaptManager#addCancelAdaptOfActivity(Class)#addCancelAdaptOfActivity(Class)},
+   * 连续调用只修改暂存集合, 不会每次都复制 {@link Snapshot}; 已有数组时使用 {@link #addCancelAdaptOfActivities(Class[])} 更方便
    *
    * @param targetClass {@link Activity} class, {@link Fragment} class
    * @return {@link ExternalAdaptManager} self
    */
-  public synchronized ExternalAdaptManager addCancelAdaptOfActivity(Class<?> targetClass) {
+  public ExternalAdaptManager addCancelAdaptOfActivity(Class<?> targetClass) {
     Preconditions.checkNotNull(targetClass, "targetClass == null");
-    if (!isRun) {
-      isRun = true;
-    }
-    if (mCancelAdaptList == null) {
-      mCancelAdaptList = new ArrayList<>();
+    return addCancelAdaptOfActivities(targetClass);
+  }
+
+  /**
+   * 批量添加不需要适配的 {@link Activity}, 效果与多次调用 {@link #addCancelAdaptOfActivity(Class)} 相同
+   *
+   * @param targetClasses {@link Activity} class, {@link Fragment} class
+   * @return {@link ExternalAdaptManager} self
+   */
+  public synchronized ExternalAdaptManager addCancelAdaptOfActivities(Class<?>... targetClasses) {
+    Preconditions.checkNotNull(targetClasses, "targetClasses == null");
+    for (Class<?> targetClass : targetClasses) {
+      Preconditions.checkNotNull(targetClass, "targetClass == null");
     }
-    mCancelAdaptList.add(targetClass.getCanonicalName());
+    Collections.addAll(mCancelAdaptClasses, targetClasses);
+    isRun = true;
+    invalidate();
     return this;
   }
 
@@ -65,21 +91,39 @@ public class ExternalAdaptManager {
    * 默认的全局适配参数不能满足您时可以使用此方法
    * <p>
    * 支持链式调用, 如: {@link ExternalAdaptManager#addExternalAdaptInfoOfActivity(Class,
-   * ExternalAdaptInfo)#addExternalAdaptInfoOfActivity(Class, ExternalAdaptInfo)}
+   * ExternalAdaptInfo)#addExternalAdaptInfoOfActivity(Class, ExternalAdaptInfo)}, 连续调用只修改暂存集合, 不会每次都复制
+   * {@link Snapshot}; 已有 {@link Map} 时使用 {@link #addExternalAdaptInfoOfActivities(Map)} 更方便
    *
    * @param targetClass {@link Activity} class, {@link Fragment} class
    * @param info {@link ExternalAdaptInfo} 适配参数
    */
-  public synchronized ExternalAdaptManager addExternalAdaptInfoOfActivity(
+  public ExternalAdaptManager addExternalAdaptInfoOfActivity(
       Class<?> targetClass, ExternalAdaptInfo info) {
     Preconditions.checkNotNull(targetClass, "targetClass == null");
-    if (!isRun) {
+    synchronized (this) {
+      mExternalAdaptInfos.put(targetClass, info);
       isRun = true;
+      invalidate();
     }
-    if (mExternalAdaptInfo == null) {
-      mExternalAdaptInfo = new HashMap<>(16);
+    return this;
+  }
+
+  /**
+   * 批量添加需要提供自定义适配参数的 {@link Activity}, 效果与多次调用 {@link #addExternalAdaptInfoOfActivity(Class,
+   * ExternalAdaptInfo)} 相同
+   *
+   * @param infos key 为 {@link Activity} class 或 {@link Fragment} class, value 为 {@link ExternalAdaptInfo}
+   * @return {@link ExternalAdaptManager} self
+   */
+  public synchronized ExternalAdaptManager addExternalAdaptInfoOfActivities(
+      Map<Class<?>, ExternalAdaptInfo> infos) {
+    Preconditions.checkNotNull(infos, "infos == null");
+    for (Class<?> targetClass : infos.keySet()) {
+      Preconditions.checkNotNull(targetClass, "targetClass == null");
     }
-    mExternalAdaptInfo.put(targetClass.getCanonicalName(), info);
+    mExternalAdaptInfos.putAll(infos);
+    isRun = true;
+    invalidate();
     return this;
   }
 
@@ -89,12 +133,9 @@ public class ExternalAdaptManager {
    * @param targetClass {@link Activity} class, {@link Fragment} class
    * @return {@code true} 为存在, {@code false} 为不存在
    */
-  public synchronized boolean isCancelAdapt(Class<?> targetClass) {
+  public boolean isCancelAdapt(Class<?> targetClass) {
     Preconditions.checkNotNull(targetClass, "targetClass == null");
-    if (mCancelAdaptList == null) {
-      return false;
-    }
-    return mCancelAdaptList.contains(targetClass.getCanonicalName());
+    return snapshot().mCancelAdaptClasses.contains(targetClass);
   }
 
   /**
@@ -103,12 +144,9 @@ public class ExternalAdaptManager {
    * @param targetClass {@link Activity} class, {@link Fragment} class
    * @return 如果返回 {@code null} 则说明该 {@link Activity} 没有提供自定义的适配参数
    */
-  public synchronized ExternalAdaptInfo getExternalAdaptInfoOfActivity(Class<?> targetClass) {
+  public ExternalAdaptInfo getExternalAdaptInfoOfActivity(Class<?> targetClass) {
     Preconditions.checkNotNull(targetClass, "targetClass == null");
-    if (mExternalAdaptInfo == null) {
-      return null;
-    }
-    return mExternalAdaptInfo.get(targetClass.getCanonicalName());
+    return snapshot().mExternalAdaptInfos.get(targetClass);
   }
 
   /**
@@ -117,7 +155,7 @@ public class ExternalAdaptManager {
    * @return {@code true} 为已经启动, {@code false} 为没有启动
    */
   public boolean isRun() {
-    return isRun;
+    return snapshot().isRun;
   }
 
   /**
@@ -125,7 +163,96 @@ public class ExternalAdaptManager {
    *
    * @param run {@code true} 为让管理器启动运行, {@code false} 为让管理器停止运行
    */
-  public void setRun(boolean run) {
+  public synchronized void setRun(boolean run) {
     isRun = run;
+    invalidate();
+  }
+
+  /**
+   * 管理器的版本号, 每次添加适配信息或修改运行状态都会改变
+   *
+   * @return 版本号
+   */
+  public int getVersion() {
+    return snapshot().mVersion;
+  }
+
+  /**
+   * 获取当前所有的适配信息, 返回的 {@link Snapshot} 不会再改变
+   *
+   * @return {@link Snapshot}
+   */
+  public Snapshot getSnapshot() {
+    return snapshot();
+  }
+
+  private Snapshot snapshot() {
+    final Snapshot snapshot = mSnapshot;
+    return snapshot != null ? snapshot : publish();
+  }
+
+  /**
+   * 暂存集合被修改后调用, 必须持有锁
+   */
+  private void invalidate() {
+    mVersion++;
+    mSnapshot = null;
+  }
+
+  /**
+   * 把暂存集合复制为新的 {@link Snapshot} 并发布, 两次发布之间的所有修改只复制一次
+   */
+  private synchronized Snapshot publish() {
+    Snapshot snapshot = mSnapshot;
+    if (snapshot == null) {
+      snapshot = new Snapshot(new HashSet<>(mCancelAdaptClasses),
+          new HashMap<>(mExternalAdaptInfos), isRun, mVersion);
+      mSnapshot = snapshot;
+    }
+    return snapshot;
+  }
+
+  /**
+   * {@link ExternalAdaptManager} 在某一时刻的适配信息, 创建后不可修改
+   */
+  public static final class Snapshot {
+
+    static final Snapshot EMPTY = new Snapshot(Collections.<Class<?>>emptySet(),
+        Collections.<Class<?>, ExternalAdaptInfo>emptyMap(), false, 0);
+
+    private final Set<Class<?>> mCancelAdaptClasses;
+    private final Map<Class<?>, ExternalAdaptInfo> mExternalAdaptInfos;
+    private final boolean isRun;
+    private final int mVersion;
+
+    private Snapshot(Set<Class<?>> cancelAdaptClasses,
+        Map<Class<?>, ExternalAdaptInfo> externalAdaptInfos, boolean isRun, int version) {
+      mCancelAdaptClasses = cancelAdaptClasses;
+      mExternalAdaptInfos = externalAdaptInfos;
+      this.isRun = isRun;
+      mVersion = version;
+    }
+
+    /**
+     * 取消适配的类
+     */
+    public Set<Class<?>> getCancelAdaptClasses() {
+      return Collections.unmodifiableSet(mCancelAdaptClasses);
+    }
+
+    /**
+     * 提供了 {@link ExternalAdaptInfo} 的类
+     */
+    public Map<Class<?>, ExternalAdaptInfo> getExternalAdaptInfos() {
+      return Collections.unmodifiableMap(mExternalAdaptInfos);
+    }
+
+    public boolean isRun() {
+      return isRun;
+    }
+
+    public int getVersion() {
+      return mVersion;
+    }
   }
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.inflate;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.util.DisplayMetrics;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import edu.geneve.autosize.AdaptedContextWrapper;
+import edu.geneve.autosize.AutoSize;
+import edu.geneve.autosize.AutoSizeConfig;
+import edu.geneve.autosize.utils.LogUtils;
+import edu.geneve.autosize.utils.Preconditions;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PreInflateManager} 在后台线程中用适配后的 density 预先 inflate 耗时的布局, 页面在 onCreate 中直接取用, 通过 {@link
+ * AutoSizeConfig#getPreInflateManager()} 获取, 不可自己 new 实例
+ * <p>
+ * 每个 {@link View} 通过 {@link AutoSize#createAdaptedContext(Context, float, boolean)} 得到的 {@link
+ * AdaptedContextWrapper} inflate, 不会读写主线程正在修改的 {@link DisplayMetrics}; 外层包裹一个 {@link
+ * MutableContextWrapper}, 取用时换成页面自己的 {@link Context}, 之后 {@link View#getContext()} 与正常 inflate 的 {@link
+ * View} 一致
+ * <p>
+ * 缓存池有容量上限, {@link AutoSizeConfig} 发现屏幕配置 (density、方向、字体缩放) 变化时会清空缓存池并让正在进行的 inflate 作废,
+ * 取用时还会再与页面实际的 {@link DisplayMetrics} 比较一次, 所以不会取到 density 过期的 {@link View}
+ * <p>
+ * 后台 inflate 的限制与 AsyncLayoutInflater 相同: 布局中的 {@link View} 不能在构造时创建 {@link android.os.Handler} 或者依赖主线程
+ * <p>
+ * Example usage:
+ * <pre>
+ * AutoSizeConfig.getInstance().getPreInflateManager()
+ *     .preInflate(R.layout.activity_detail, R.style.AppTheme, 0, true, 1);
+ * ...
+ * protected void onCreate(Bundle savedInstanceState) {
+ *   super.onCreate(savedInstanceState);
+ *   View view = AutoSizeConfig.getInstance().getPreInflateManager()
+ *       .take(this, R.layout.activity_detail);
+ *   if (view != null) {
+ *     setContentView(view);
+ *   } else {
+ *     setContentView(R.layout.activity_detail);
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public class PreInflateManager {
+
+  /**
+   * 默认的缓存池容量
+   */
+  public static final int DEFAULT_MAX_POOL_SIZE = 8;
+
+  private final Map<Integer, ArrayDeque<Entry>> mPool = new HashMap<>();
+  private int mSize;
+  private int mMaxPoolSize = DEFAULT_MAX_POOL_SIZE;
+
+  /**
+   * 每次 {@link #clear()} 加一, 开始 inflate 时的值与放入缓存池时不同说明期间屏幕配置发生了变化
+   */
+  private int mGeneration;
+
+  private Executor mExecutor;
+
+  /**
+   * 设置缓存池容量, 超出容量的 {@link View} 会被丢弃, 当前缓存的 {@link View} 超出新容量时立即清空
+   *
+   * @param maxPoolSize 缓存池容量, 所有布局共用
+   * @return {@link PreInflateManager} self
+   */
+  public synchronized PreInflateManager setMaxPoolSize(int maxPoolSize) {
+    Preconditions.checkArgument(maxPoolSize >= 0, "maxPoolSize must be >= 0");
+    mMaxPoolSize = maxPoolSize;
+    if (mSize > maxPoolSize) {
+      clear();
+    }
+    return this;
+  }
+
+  /**
+   * 设置执行 inflate 的 {@link Executor}, 默认使用一个空闲 30 秒后退出的后台线程
+   *
+   * @param executor 执行 inflate 的 {@link Executor}, 不要传入主线程的 {@link Executor}
+   * @return {@link PreInflateManager} self
+   */
+  public synchronized PreInflateManager setExecutor(Executor executor) {
+    mExecutor = Preconditions.checkNotNull(executor, "executor is NULL");
+    return this;
+  }
+
+  /**
+   * 在后台线程中预先 inflate {@code count} 个 {@code layoutResId}, 需要在 {@link AutoSizeConfig#init} 之后调用
+   *
+   * @param layoutResId 布局 id
+   * @param themeResId 页面使用的主题, 为 {@code 0} 时使用 {@link android.app.Application} 的主题
+   * @param sizeInDp 页面的设计图尺寸, 单位 dp, 小于等于 {@code 0} 时使用全局设计图尺寸
+   * @param isBaseOnWidth 是否以宽度为基准
+   * @param count 数量
+   * @return {@link PreInflateManager} self
+   */
+  public PreInflateManager preInflate(final int layoutResId, final int themeResId,
+      final float sizeInDp, final boolean isBaseOnWidth, int count) {
+    Preconditions.checkArgument(count > 0, "count must be greater than 0");
+    final Context application = AutoSizeConfig.getInstance().getApplication();
+    final Executor executor = executor();
+    for (int i = 0; i < count; i++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          inflate(application, layoutResId, themeResId, sizeInDp, isBaseOnWidth);
+        }
+      });
+    }
+    return this;
+  }
+
+  /**
+   * 取出一个预先 inflate 好的 {@link View}, 只有它的 density 与 {@code context} 的 {@link DisplayMetrics} 一致时才会返回,
+   * 在主线程调用
+   *
+   * @param context 使用这个 {@link View} 的 {@link Context}, 通常是已经完成适配的 {@link Activity} (在 {@code
+   * super.onCreate} 之后), 也可以是 {@link AdaptedContextWrapper}
+   * @param layoutResId 布局 id
+   * @return 没有可用的 {@link View} 时返回 {@code null}, 由调用方正常 inflate
+   */
+  public View take(Context context, int layoutResId) {
+    Preconditions.checkNotNull(context, "context is NULL");
+    final DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
+    Entry entry;
+    synchronized (this) {
+      final ArrayDeque<Entry> entries = mPool.get(layoutResId);
+      if (entries == null) {
+        return null;
+      }
+      while ((entry = entries.poll()) != null) {
+        mSize--;
+        if (entry.density == displayMetrics.density
+            && entry.scaledDensity == displayMetrics.scaledDensity) {
+          break;
+        }
+      }
+      if (entries.isEmpty()) {
+        mPool.remove(layoutResId);
+      }
+    }
+    if (entry == null) {
+      return null;
+    }
+    entry.context.setBaseContext(context);
+    return entry.view;
+  }
+
+  /**
+   * 清空缓存池, 正在进行的 inflate 完成后也会被丢弃
+   */
+  public synchronized void clear() {
+    mPool.clear();
+    mSize = 0;
+    mGeneration++;
+  }
+
+  /**
+   * 当前缓存的 {@link View} 数量
+   */
+  public synchronized int size() {
+    return mSize;
+  }
+
+  private void inflate(Context application, int layoutResId, int themeResId, float sizeInDp,
+      boolean isBaseOnWidth) {
+    final int generation;
+    synchronized (this) {
+      if (mSize >= mMaxPoolSize) {
+        return;
+      }
+      generation = mGeneration;
+    }
+    final Context base = themeResId != 0 ? new ContextThemeWrapper(application, themeResId)
+        : application;
+    final AdaptedContextWrapper adaptedContext = AutoSize
+        .createAdaptedContext(base, sizeInDp, isBaseOnWidth);
+    final MutableContextWrapper context = new MutableContextWrapper(adaptedContext);
+    final View view;
+    try {
+      view = LayoutInflater.from(adaptedContext).cloneInContext(context)
+          .inflate(layoutResId, (ViewGroup) null, false);
+    } catch (RuntimeException e) {
+      LogUtils.w("Failed to pre-inflate layout 0x%x: %s", layoutResId, e);
+      return;
+    }
+    final DisplayMetrics displayMetrics = adaptedContext.getResources().getDisplayMetrics();
+    final Entry entry = new Entry(view, context, displayMetrics.density,
+        displayMetrics.scaledDensity);
+    synchronized (this) {
+      if (generation != mGeneration || mSize >= mMaxPoolSize) {
+        return;
+      }
+      ArrayDeque<Entry> entries = mPool.get(layoutResId);
+      if (entries == null) {
+        entries = new ArrayDeque<>();
+        mPool.put(layoutResId, entries);
+      }
+      entries.offer(entry);
+      mSize++;
+    }
+  }
+
+  private synchronized Executor executor() {
+    if (mExecutor == null) {
+      final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "AutoSize-PreInflate");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.allowCoreThreadTimeOut(true);
+      mExecutor = executor;
+    }
+    return mExecutor;
+  }
+
+  private static final class Entry {
+
+    final View view;
+    final MutableContextWrapper context;
+    final float density;
+    final float scaledDensity;
+
+    Entry(View view, MutableContextWrapper context, float density, float scaledDensity) {
+      this.view = view;
+      this.context = context;
+      this.density = density;
+      this.scaledDensity = scaledDensity;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.internal;
+
+import android.app.Activity;
+
+/**
+ * {@link edu.geneve.autosize.DefaultAutoAdaptStrategy} 会把每个类的适配方案缓存起来, {@link CustomAdapt#getSizeInDp()} 和
+ * {@link CustomAdapt#isBaseOnWidth()} 对同一个类只会调用一次 如果某个页面的适配参数会在运行时变化 (比如根据传入的数据决定设计图尺寸), 请让该页面
+ * {@link Activity} 在实现 {@link CustomAdapt} 的同时实现此接口, 每次适配时都会重新读取适配参数
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public interface DynamicAdapt extends CustomAdapt {
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.utils;
+
+import edu.geneve.autosize.external.ExternalAdaptInfo;
+import edu.geneve.autosize.internal.CustomAdapt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 保存最近适配事件的环形缓冲区, 用来代替 logcat 输出
+ * <p>
+ * 所有槽位在创建时就已经分配好, 记录事件只是写入基本类型数组, 不会产生对象分配, 也不会格式化字符串; 只有调用 {@link #dump()} 时才会生成可读的文本
+ * <p>
+ * Example usage:
+ * <pre>
+ * AutoSizeConfig.getInstance().setLogEventBufferSize(64);
+ * ...
+ * for (String event : AutoSizeConfig.getInstance().getLogEventBuffer().dump()) {
+ *   report(event);
+ * }
+ * </pre>
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class AdaptEventBuffer {
+
+  /**
+   * 取消适配
+   */
+  public static final int TYPE_CANCEL = 0;
+
+  /**
+   * 使用 {@link ExternalAdaptInfo} 适配
+   */
+  public static final int TYPE_EXTERNAL = 1;
+
+  /**
+   * 使用 {@link CustomAdapt} 适配
+   */
+  public static final int TYPE_CUSTOM = 2;
+
+  /**
+   * 使用全局配置适配
+   */
+  public static final int TYPE_GLOBAL = 3;
+
+  /**
+   * 完成适配, 附带适配后的参数
+   */
+  public static final int TYPE_ADAPTED = 4;
+
+  private final int mCapacity;
+  private final long[] mTimeNanos;
+  private final int[] mTypes;
+  private final Class<?>[] mTargets;
+  private final float[] mSizeInDp;
+  private final boolean[] isBaseOnWidth;
+  private final float[] mDensity;
+  private final int[] mDensityDpi;
+  private final float[] mScaledDensity;
+  private final float[] mXdpi;
+
+  /**
+   * 已经记录的事件总数, 包括已经被覆盖的事件
+   */
+  private long mCount;
+
+  public AdaptEventBuffer(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "capacity must be greater than 0");
+    mCapacity = capacity;
+    mTimeNanos = new long[capacity];
+    mTypes = new int[capacity];
+    mTargets = new Class<?>[capacity];
+    mSizeInDp = new float[capacity];
+    isBaseOnWidth = new boolean[capacity];
+    mDensity = new float[capacity];
+    mDensityDpi = new int[capacity];
+    mScaledDensity = new float[capacity];
+    mXdpi = new float[capacity];
+  }
+
+  synchronized void recordDecision(int type, Class<?> target) {
+    final int index = next(type, target);
+    mSizeInDp[index] = 0;
+    isBaseOnWidth[index] = false;
+    mDensity[index] = 0;
+    mDensityDpi[index] = 0;
+    mScaledDensity[index] = 0;
+    mXdpi[index] = 0;
+  }
+
+  synchronized void recordAdapted(Class<?> target, float sizeInDp, boolean baseOnWidth,
+      float density, int densityDpi, float scaledDensity, float xdpi) {
+    final int index = next(TYPE_ADAPTED, target);
+    mSizeInDp[index] = sizeInDp;
+    isBaseOnWidth[index] = baseOnWidth;
+    mDensity[index] = density;
+    mDensityDpi[index] = densityDpi;
+    mScaledDensity[index] = scaledDensity;
+    mXdpi[index] = xdpi;
+  }
+
+  private int next(int type, Class<?> target) {
+    final int index = (int) (mCount % mCapacity);
+    mCount++;
+    mTimeNanos[index] = System.nanoTime();
+    mTypes[index] = type;
+    mTargets[index] = target;
+    return index;
+  }
+
+  /**
+   * 缓冲区的容量
+   */
+  public int getCapacity() {
+    return mCapacity;
+  }
+
+  /**
+   * 当前缓冲区中的事件数
+   */
+  public synchronized int size() {
+    return (int) Math.min(mCount, mCapacity);
+  }
+
+  /**
+   * 自创建或上一次 {@link #clear()} 以来记录的事件总数, 包括已经被覆盖的事件
+   */
+  public synchronized long getTotalCount() {
+    return mCount;
+  }
+
+  public synchronized void clear() {
+    mCount = 0;
+    for (int i = 0; i < mCapacity; i++) {
+      mTargets[i] = null;
+    }
+  }
+
+  /**
+   * 按时间顺序 (从旧到新) 输出缓冲区中的事件, 每个事件前带有 {@link System#nanoTime()} 时间戳
+   *
+   * @return 可读的事件列表
+   */
+  public synchronized List<String> dump() {
+    final int size = size();
+    final List<String> events = new ArrayList<>(size);
+    for (long i = mCount - size; i < mCount; i++) {
+      final int index = (int) (i % mCapacity);
+      final String message = mTypes[index] == TYPE_ADAPTED
+          ? formatAdapted(mTargets[index], mSizeInDp[index], isBaseOnWidth[index],
+          mDensity[index], mDensityDpi[index], mScaledDensity[index], mXdpi[index])
+          : formatDecision(mTypes[index], mTargets[index]);
+      events.add(mTimeNanos[index] + " " + message);
+    }
+    return events;
+  }
+
+  static String formatDecision(int type, Class<?> target) {
+    switch (type) {
+      case TYPE_CANCEL:
+        return String.format(Locale.ENGLISH, "%s canceled the adaptation!", target.getName());
+      case TYPE_EXTERNAL:
+        return String.format(Locale.ENGLISH, "%s used %s for adaptation!", target.getName(),
+            ExternalAdaptInfo.class.getName());
+      case TYPE_CUSTOM:
+        return String.format(Locale.ENGLISH, "%s implemented by %s!", target.getName(),
+            CustomAdapt.class.getName());
+      default:
+        return String.format(Locale.ENGLISH, "%s used the global configuration.",
+            target.getName());
+    }
+  }
+
+  static String formatAdapted(Class<?> target, float sizeInDp, boolean baseOnWidth,
+      float density, int densityDpi, float scaledDensity, float xdpi) {
+    return String.format(Locale.ENGLISH,
+        "The %s has been adapted! \n" +
+            "%s Info: isBaseOnWidth = %s, %s = %f, targetDensity = %f, " +
+            "targetScaledDensity = %f, targetDensityDpi = %d, targetXdpi = %f",
+        target.getName(), target.getSimpleName(),
+        baseOnWidth, baseOnWidth ? "designWidthInDp" : "designHeightInDp",
+        sizeInDp, density, scaledDensity, densityDpi, xdpi);
+  }
+}
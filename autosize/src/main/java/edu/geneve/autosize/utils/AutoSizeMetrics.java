@@ -0,0 +1,355 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.utils;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * AutoSize 的运行指标, 用于了解适配在线上的实际开销
+ * <ul>
+ * <li>计数器: 各生命周期来源触发 {@code applyAdapt} 的次数、{@link edu.geneve.autosize.DisplayMetricsInfo} 缓存的命中、未命中与淘汰次数、
+ * 写入与跳过写入 {@link android.util.DisplayMetrics} 的次数, 始终开启</li>
+ * <li>耗时直方图: {@code AutoSize#autoConvertDensity}、{@link ScreenUtils} 和 {@code AutoSizeConfig#init}, 需要调用
+ * {@link #setTimingEnabled(boolean)} 开启</li>
+ * </ul>
+ * 记录时使用按线程分片的计数器, 不加锁也不分配对象; 通过 {@link #snapshot()} 获取当前的数值后上报到自己的监控系统
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class AutoSizeMetrics {
+
+  /**
+   * {@code applyAdapt} 的来源
+   */
+  public static final int SOURCE_ACTIVITY_CREATED = 0;
+  public static final int SOURCE_ACTIVITY_STARTED = 1;
+  public static final int SOURCE_FRAGMENT_CREATED = 2;
+  public static final int SOURCE_CONFIGURATION_CHANGED = 3;
+
+  /**
+   * 耗时直方图
+   */
+  public static final int TIMER_AUTO_CONVERT_DENSITY = 0;
+  public static final int TIMER_SCREEN_UTILS = 1;
+  public static final int TIMER_INIT = 2;
+  private static final int TIMER_COUNT = 3;
+
+  private static final int COUNTER_CACHE_HIT = 4;
+  private static final int COUNTER_CACHE_MISS = 5;
+  private static final int COUNTER_DENSITY_WRITE = 6;
+  private static final int COUNTER_DENSITY_SKIP = 7;
+  private static final int COUNTER_CACHE_EVICTION = 8;
+  private static final int COUNTER_COUNT = 9;
+
+  /**
+   * 直方图的第 i 个桶记录耗时小于 {@code 256 << i} 纳秒的调用 (第 0 个桶为小于 256 纳秒), 最后一个桶记录其余所有调用
+   */
+  public static final int BUCKET_COUNT = 18;
+  private static final int FIRST_BUCKET_SHIFT = 8;
+
+  /**
+   * 直方图每一片的布局: 调用次数、总耗时、各个桶
+   */
+  private static final int HISTOGRAM_COUNT = 0;
+  private static final int HISTOGRAM_TOTAL = 1;
+  private static final int HISTOGRAM_BUCKETS = 2;
+
+  private static final StripedLongArray sCounters = new StripedLongArray(COUNTER_COUNT);
+  private static final StripedLongArray[] sHistograms = new StripedLongArray[TIMER_COUNT];
+
+  static {
+    for (int i = 0; i < TIMER_COUNT; i++) {
+      sHistograms[i] = new StripedLongArray(HISTOGRAM_BUCKETS + BUCKET_COUNT);
+    }
+  }
+
+  private static volatile boolean isTimingEnabled;
+
+  private AutoSizeMetrics() {
+    throw new IllegalStateException("AutoSizeMetrics can not be instantiated!");
+  }
+
+  /**
+   * 开启或关闭耗时统计, 关闭时 {@link #startTimer()} 不会读取时钟
+   */
+  public static void setTimingEnabled(boolean enabled) {
+    isTimingEnabled = enabled;
+  }
+
+  public static boolean isTimingEnabled() {
+    return isTimingEnabled;
+  }
+
+  /**
+   * 记录一次 {@code applyAdapt}
+   *
+   * @param source {@link #SOURCE_ACTIVITY_CREATED}、{@link #SOURCE_ACTIVITY_STARTED}、{@link
+   * #SOURCE_FRAGMENT_CREATED} 或 {@link #SOURCE_CONFIGURATION_CHANGED}
+   */
+  public static void recordApplyAdapt(int source) {
+    sCounters.add(source, 1);
+  }
+
+  public static void recordCacheHit() {
+    sCounters.add(COUNTER_CACHE_HIT, 1);
+  }
+
+  public static void recordCacheMiss() {
+    sCounters.add(COUNTER_CACHE_MISS, 1);
+  }
+
+  /**
+   * @param count 从 {@link edu.geneve.autosize.DisplayMetricsInfo} 缓存中淘汰的条目数
+   */
+  public static void recordCacheEviction(int count) {
+    sCounters.add(COUNTER_CACHE_EVICTION, count);
+  }
+
+  public static void recordDensityWrite() {
+    sCounters.add(COUNTER_DENSITY_WRITE, 1);
+  }
+
+  /**
+   * @param count 跳过写入的 {@link android.util.DisplayMetrics} 数量
+   */
+  public static void recordDensitySkip(int count) {
+    sCounters.add(COUNTER_DENSITY_SKIP, count);
+  }
+
+  /**
+   * 写入 {@link android.util.DisplayMetrics} 的总次数, 不需要创建 {@link Snapshot}
+   */
+  public static long getDensityWriteCount() {
+    return sCounters.sum(COUNTER_DENSITY_WRITE);
+  }
+
+  /**
+   * 跳过写入 {@link android.util.DisplayMetrics} 的总次数, 不需要创建 {@link Snapshot}
+   */
+  public static long getDensitySkipCount() {
+    return sCounters.sum(COUNTER_DENSITY_SKIP);
+  }
+
+  /**
+   * 开始计时
+   *
+   * @return 传给 {@link #stopTimer(int, long)}, 没有开启耗时统计时返回 {@code 0}
+   */
+  public static long startTimer() {
+    return isTimingEnabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * 结束计时并记录到直方图
+   *
+   * @param timer {@link #TIMER_AUTO_CONVERT_DENSITY}、{@link #TIMER_SCREEN_UTILS} 或 {@link #TIMER_INIT}
+   * @param startNanos {@link #startTimer()} 的返回值
+   */
+  public static void stopTimer(int timer, long startNanos) {
+    if (startNanos == 0) {
+      return;
+    }
+    recordLatency(timer, System.nanoTime() - startNanos);
+  }
+
+  /**
+   * 直接记录一次耗时
+   *
+   * @param timer {@link #TIMER_AUTO_CONVERT_DENSITY}、{@link #TIMER_SCREEN_UTILS} 或 {@link #TIMER_INIT}
+   * @param nanos 耗时, 单位纳秒
+   */
+  public static void recordLatency(int timer, long nanos) {
+    final StripedLongArray histogram = sHistograms[timer];
+    final int base = histogram.base();
+    histogram.addAt(base, HISTOGRAM_COUNT, 1);
+    histogram.addAt(base, HISTOGRAM_TOTAL, nanos);
+    histogram.addAt(base, HISTOGRAM_BUCKETS + bucketOf(nanos), 1);
+  }
+
+  static int bucketOf(long nanos) {
+    final long scaled = nanos >> FIRST_BUCKET_SHIFT;
+    if (scaled <= 0) {
+      return 0;
+    }
+    return Math.min(64 - Long.numberOfLeadingZeros(scaled), BUCKET_COUNT - 1);
+  }
+
+  /**
+   * 第 {@code bucket} 个桶的上限 (不包含), 单位纳秒, 最后一个桶返回 {@link Long#MAX_VALUE}
+   */
+  public static long bucketUpperBoundNanos(int bucket) {
+    return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << (FIRST_BUCKET_SHIFT + bucket);
+  }
+
+  /**
+   * 获取当前所有指标的快照
+   */
+  public static Snapshot snapshot() {
+    final long[] counters = new long[COUNTER_COUNT];
+    for (int i = 0; i < COUNTER_COUNT; i++) {
+      counters[i] = sCounters.sum(i);
+    }
+    final Histogram[] histograms = new Histogram[TIMER_COUNT];
+    for (int i = 0; i < TIMER_COUNT; i++) {
+      final StripedLongArray histogram = sHistograms[i];
+      final long[] buckets = new long[BUCKET_COUNT];
+      for (int j = 0; j < BUCKET_COUNT; j++) {
+        buckets[j] = histogram.sum(HISTOGRAM_BUCKETS + j);
+      }
+      histograms[i] = new Histogram(histogram.sum(HISTOGRAM_COUNT),
+          histogram.sum(HISTOGRAM_TOTAL), buckets);
+    }
+    return new Snapshot(counters, histograms);
+  }
+
+  /**
+   * 清零所有指标, 例如每次上报之后
+   */
+  public static void reset() {
+    sCounters.reset();
+    for (StripedLongArray histogram : sHistograms) {
+      histogram.reset();
+    }
+  }
+
+  /**
+   * 某一时刻的指标, 创建后不可修改
+   */
+  public static final class Snapshot {
+
+    private final long[] mCounters;
+    private final Histogram[] mHistograms;
+
+    Snapshot(long[] counters, Histogram[] histograms) {
+      mCounters = counters;
+      mHistograms = histograms;
+    }
+
+    /**
+     * @param source {@link #SOURCE_ACTIVITY_CREATED}、{@link #SOURCE_ACTIVITY_STARTED}、{@link
+     * #SOURCE_FRAGMENT_CREATED} 或 {@link #SOURCE_CONFIGURATION_CHANGED}
+     */
+    public long getApplyAdaptCount(int source) {
+      return mCounters[source];
+    }
+
+    public long getCacheHitCount() {
+      return mCounters[COUNTER_CACHE_HIT];
+    }
+
+    public long getCacheMissCount() {
+      return mCounters[COUNTER_CACHE_MISS];
+    }
+
+    public long getCacheEvictionCount() {
+      return mCounters[COUNTER_CACHE_EVICTION];
+    }
+
+    public long getDensityWriteCount() {
+      return mCounters[COUNTER_DENSITY_WRITE];
+    }
+
+    public long getDensitySkipCount() {
+      return mCounters[COUNTER_DENSITY_SKIP];
+    }
+
+    /**
+     * @param timer {@link #TIMER_AUTO_CONVERT_DENSITY}、{@link #TIMER_SCREEN_UTILS} 或 {@link #TIMER_INIT}
+     */
+    public Histogram getHistogram(int timer) {
+      return mHistograms[timer];
+    }
+
+    @Override
+    public String toString() {
+      return
+          "AutoSizeMetrics{" +
+              "applyAdapt=" + Arrays.toString(Arrays.copyOf(mCounters, COUNTER_CACHE_HIT)) +
+              ", cacheHit=" + getCacheHitCount() +
+              ", cacheMiss=" + getCacheMissCount() +
+              ", cacheEviction=" + getCacheEvictionCount() +
+              ", densityWrite=" + getDensityWriteCount() +
+              ", densitySkip=" + getDensitySkipCount() +
+              ", autoConvertDensity=" + mHistograms[TIMER_AUTO_CONVERT_DENSITY] +
+              ", screenUtils=" + mHistograms[TIMER_SCREEN_UTILS] +
+              ", init=" + mHistograms[TIMER_INIT] +
+              '}';
+    }
+  }
+
+  /**
+   * 固定分桶的耗时直方图, 桶的边界见 {@link #bucketUpperBoundNanos(int)}
+   */
+  public static final class Histogram {
+
+    private final long mCount;
+    private final long mTotalNanos;
+    private final long[] mBuckets;
+
+    Histogram(long count, long totalNanos, long[] buckets) {
+      mCount = count;
+      mTotalNanos = totalNanos;
+      mBuckets = buckets;
+    }
+
+    public long getCount() {
+      return mCount;
+    }
+
+    public long getTotalNanos() {
+      return mTotalNanos;
+    }
+
+    public long getBucketCount(int bucket) {
+      return mBuckets[bucket];
+    }
+
+    /**
+     * 估算分位数, 返回该分位数所在桶的上限
+     *
+     * @param quantile 0 到 1 之间, 例如 {@code 0.99}
+     * @return 单位纳秒, 没有记录时返回 {@code 0}
+     */
+    public long getQuantileUpperBoundNanos(double quantile) {
+      long total = 0;
+      for (long bucket : mBuckets) {
+        total += bucket;
+      }
+      if (total == 0) {
+        return 0;
+      }
+      final long rank = (long) Math.ceil(total * Math.min(Math.max(quantile, 0), 1));
+      long seen = 0;
+      for (int i = 0; i < mBuckets.length; i++) {
+        seen += mBuckets[i];
+        if (seen >= rank && mBuckets[i] > 0) {
+          return bucketUpperBoundNanos(i);
+        }
+      }
+      return bucketUpperBoundNanos(mBuckets.length - 1);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ENGLISH, "{count=%d, meanNs=%d, p50Ns<%d, p99Ns<%d}", mCount,
+          mCount == 0 ? 0 : mTotalNanos / mCount, getQuantileUpperBoundNanos(0.5),
+          getQuantileUpperBoundNanos(0.99));
+    }
+  }
+}
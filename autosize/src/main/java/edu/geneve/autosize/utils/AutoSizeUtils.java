@@ -16,10 +16,11 @@
 package edu.geneve.autosize.utils;
 
 import android.content.Context;
+import android.util.DisplayMetrics;
 import android.util.TypedValue;
 
 /**
- * 单位转化常用工具类
+ * 单位转化常用工具类, 需要频繁换算或者批量换算时请使用 {@link #getConverter(Context)}
  *
  * @author Geneve
  * @version 1.0
@@ -31,6 +32,45 @@ public class AutoSizeUtils {
     throw new IllegalStateException("AutoSizeUtil can not be instantiated!");
   }
 
+  /**
+   * 最近一次创建的 {@link UnitConverter}, 同一个 {@link DisplayMetrics} 在没有过期之前直接复用
+   */
+  private static volatile UnitConverter sLastConverter;
+
+  /**
+   * 获取 {@code context} 当前 {@link DisplayMetrics} 的换算系数快照, 没有过期时复用上一次的快照
+   *
+   * @param context {@link Context}
+   * @return {@link UnitConverter}
+   */
+  public static UnitConverter getConverter(Context context) {
+    final DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
+    final UnitConverter last = sLastConverter;
+    if (last != null && last.mSource == displayMetrics && !last.isStale()) {
+      return last;
+    }
+    //先读版本号再读 DisplayMetrics, 读取期间发生的写入会让这份快照立即过期
+    final UnitConverter converter = new UnitConverter(displayMetrics,
+        UnitConverter.currentVersion());
+    sLastConverter = converter;
+    return converter;
+  }
+
+  /**
+   * 让所有 {@link UnitConverter} 过期, AutoSize 写入 {@link DisplayMetrics} 后会自动调用, 自行修改 {@link
+   * DisplayMetrics} 后也需要调用
+   */
+  public static void invalidateConverters() {
+    UnitConverter.invalidateAll();
+  }
+
+  /**
+   * 清空 {@link UnitConverter} 使用的 dp / sp 查找表, 内存不足时由 AutoSize 调用, 之后用到时会重新创建
+   */
+  public static void clearLookupTables() {
+    DimensionTables.clear();
+  }
+
   public static int dp2px(Context context, float value) {
     return (int) (TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
         value, context.getResources().getDisplayMetrics()) + 0.5f);
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 整数 dp / sp 值 ({@code 0} ~ {@link #MAX_VALUE}) 换算为 px 的查找表, 以换算系数 ({@code density} 或 {@code
+ * scaledDensity}) 为键
+ * <p>
+ * 查找表在第一次用到某个系数时才会创建, 最多保留 {@link #MAX_TABLES} 个最近使用的表, 系数再次出现时 (例如在两种适配方案之间切换)
+ * 直接复用; 表中的值只由系数决定, 因此不需要失效, 系数变化后由 {@link UnitConverter} 的版本号保证不会再使用旧系数对应的表
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class DimensionTables {
+
+  /**
+   * 查找表覆盖的最大值 (包含)
+   */
+  static final int MAX_VALUE = 1000;
+  /**
+   * 最多保留的查找表数量, 每个表约 4 KB
+   */
+  static final int MAX_TABLES = 6;
+
+  private static final Map<Integer, int[]> sTables = new LinkedHashMap<Integer, int[]>(
+      MAX_TABLES * 2, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+      return size() > MAX_TABLES;
+    }
+  };
+
+  private DimensionTables() {
+    throw new IllegalStateException("you can't instantiate me!");
+  }
+
+  /**
+   * 获取 {@code factor} 对应的查找表, 不存在时创建, 返回的数组不能被修改
+   *
+   * @param factor {@code density} 或 {@code scaledDensity}
+   * @return 下标为 dp / sp 值, 元素为四舍五入后的 px 值
+   */
+  static int[] obtain(float factor) {
+    final Integer key = Float.floatToIntBits(factor);
+    synchronized (sTables) {
+      final int[] table = sTables.get(key);
+      if (table != null) {
+        return table;
+      }
+    }
+    //在锁外计算, 多个线程同时创建同一个表时结果相同, 只保留先放入的那个
+    final int[] table = new int[MAX_VALUE + 1];
+    for (int i = 0; i <= MAX_VALUE; i++) {
+      table[i] = (int) (i * factor + 0.5f);
+    }
+    synchronized (sTables) {
+      final int[] existing = sTables.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      sTables.put(key, table);
+      return table;
+    }
+  }
+
+  /**
+   * 当前保留的查找表数量
+   */
+  static int size() {
+    synchronized (sTables) {
+      return sTables.size();
+    }
+  }
+
+  /**
+   * 清空所有查找表, 已经持有查找表的 {@link UnitConverter} 不受影响
+   */
+  static void clear() {
+    synchronized (sTables) {
+      sTables.clear();
+    }
+  }
+}
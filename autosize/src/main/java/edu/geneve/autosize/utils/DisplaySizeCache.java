@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.utils;
+
+import android.content.Context;
+import android.hardware.display.DisplayManager;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.view.Display;
+
+/**
+ * 缓存默认屏幕的宽高, 只在屏幕真正发生变化时重新测量
+ * <p>
+ * Android 4.2 及以上通过 {@link DisplayManager.DisplayListener} 监听屏幕变化, 更低的版本依赖 {@link
+ * android.content.ComponentCallbacks#onConfigurationChanged} 调用 {@link #refresh()} 宽度和高度打包在一个 {@code
+ * volatile long} 中, {@link #getPackedSize()} 一次读取就能拿到一致的宽高, 不会产生对象分配
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class DisplaySizeCache {
+
+  private final Context mContext;
+  private volatile long mPackedSize;
+  private volatile DisplayManager.DisplayListener mDisplayListener;
+
+  public DisplaySizeCache(Context context) {
+    mContext = Preconditions.checkNotNull(context, "context is NULL").getApplicationContext();
+  }
+
+  /**
+   * 将宽高打包为一个 {@code long}
+   */
+  public static long pack(int width, int height) {
+    return ((long) width << 32) | (height & 0xFFFFFFFFL);
+  }
+
+  /**
+   * 从 {@link #pack(int, int)} 的结果中取出宽度
+   */
+  public static int widthOf(long packedSize) {
+    return (int) (packedSize >>> 32);
+  }
+
+  /**
+   * 从 {@link #pack(int, int)} 的结果中取出高度
+   */
+  public static int heightOf(long packedSize) {
+    return (int) packedSize;
+  }
+
+  /**
+   * 获取打包后的屏幕宽高, 从未测量过时会先测量一次
+   *
+   * @return 使用 {@link #widthOf(long)} 和 {@link #heightOf(long)} 解包，单位 px
+   */
+  public long getPackedSize() {
+    final long packedSize = mPackedSize;
+    return packedSize != 0 ? packedSize : refresh();
+  }
+
+  /**
+   * 获取屏幕宽度，单位 px
+   */
+  public int getWidth() {
+    return widthOf(getPackedSize());
+  }
+
+  /**
+   * 获取屏幕高度，单位 px
+   */
+  public int getHeight() {
+    return heightOf(getPackedSize());
+  }
+
+  /**
+   * 重新测量屏幕宽高
+   *
+   * @return 打包后的屏幕宽高
+   */
+  public long refresh() {
+    final long packedSize = ScreenUtils.measureScreenSize(mContext);
+    mPackedSize = packedSize;
+    return packedSize;
+  }
+
+  /**
+   * 使用之前保存的宽高, 不重新测量, 例如从快照恢复时
+   *
+   * @param packedSize {@link #pack(int, int)} 的结果
+   */
+  public void restore(long packedSize) {
+    mPackedSize = packedSize;
+  }
+
+  /**
+   * 缓存的宽高与屏幕方向不一致时重新测量, 用于屏幕旋转后 {@link DisplayManager.DisplayListener} 还没有回调的情况
+   *
+   * @param isVertical {@code true} 为纵向, {@code false} 为横向
+   * @return 打包后的屏幕宽高
+   */
+  public long refreshIfStale(boolean isVertical) {
+    final long packedSize = getPackedSize();
+    if ((widthOf(packedSize) <= heightOf(packedSize)) == isVertical) {
+      return packedSize;
+    }
+    return refresh();
+  }
+
+  /**
+   * 由 {@link android.content.ComponentCallbacks#onConfigurationChanged} 调用, 正在监听屏幕变化时只在宽高与屏幕方向不一致时重新测量,
+   * 否则总是重新测量
+   *
+   * @param isVertical {@code true} 为纵向, {@code false} 为横向
+   * @return 打包后的屏幕宽高
+   */
+  public long onConfigurationChanged(boolean isVertical) {
+    return mDisplayListener != null ? refreshIfStale(isVertical) : refresh();
+  }
+
+  /**
+   * 开始监听默认屏幕的变化, 必须在有 {@link android.os.Looper} 的线程 (通常是主线程) 调用, Android 4.2 以下不做任何事
+   */
+  public void startListening() {
+    if (VERSION.SDK_INT < VERSION_CODES.JELLY_BEAN_MR1 || mDisplayListener != null) {
+      return;
+    }
+    final DisplayManager displayManager = (DisplayManager) mContext
+        .getSystemService(Context.DISPLAY_SERVICE);
+    if (displayManager == null) {
+      return;
+    }
+    mDisplayListener = new DisplayManager.DisplayListener() {
+      @Override
+      public void onDisplayAdded(int displayId) {
+      }
+
+      @Override
+      public void onDisplayRemoved(int displayId) {
+      }
+
+      @Override
+      public void onDisplayChanged(int displayId) {
+        if (displayId == Display.DEFAULT_DISPLAY) {
+          refresh();
+        }
+      }
+    };
+    displayManager.registerDisplayListener(mDisplayListener, null);
+  }
+
+  /**
+   * 停止监听默认屏幕的变化
+   */
+  public void stopListening() {
+    if (mDisplayListener == null) {
+      return;
+    }
+    final DisplayManager displayManager = (DisplayManager) mContext
+        .getSystemService(Context.DISPLAY_SERVICE);
+    if (displayManager != null) {
+      displayManager.unregisterDisplayListener(mDisplayListener);
+    }
+    mDisplayListener = null;
+  }
+}
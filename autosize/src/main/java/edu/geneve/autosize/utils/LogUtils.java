@@ -16,9 +16,16 @@
 package edu.geneve.autosize.utils;
 
 import android.util.Log;
+import java.util.Locale;
 
 /**
  * 日志工具
+ * <p>
+ * 日志按级别过滤, 级别沿用 {@link Log} 中的常量, 另外增加 {@link #NONE} 表示关闭日志, 默认关闭 所有带参数的方法都会先判断级别,
+ * 低于当前级别时不会格式化字符串; 适配过程中的日志使用 {@link #adaptDecision} 和 {@link #adapted}, 参数均为基本类型, 不会产生装箱
+ * <p>
+ * 调用 {@link #setEventBuffer(AdaptEventBuffer)} 后, 适配事件不论日志级别都会写入内存中的 {@link AdaptEventBuffer} 而不再输出到 logcat,
+ * 即使 release 包的级别为 {@link #NONE} 也能在出问题后取回最近的适配记录
  *
  * @author Geneve
  * @version 1.0
@@ -26,37 +33,165 @@ import android.util.Log;
 
 public class LogUtils {
 
+  /**
+   * 关闭日志
+   */
+  public static final int NONE = Log.ASSERT + 1;
+
   private static final String TAG = "AutoSize";
-  private static boolean debug;
+  private static volatile int sLevel = NONE;
+  private static volatile AdaptEventBuffer sEventBuffer;
 
   private LogUtils() {
     throw new IllegalStateException("LogUtils can not be instantiated!");
   }
 
   public static boolean isDebug() {
-    return debug;
+    return isLoggable(Log.DEBUG);
   }
 
   public static void setDebug(boolean debug) {
-    LogUtils.debug = debug;
+    setLevel(debug ? Log.DEBUG : NONE);
+  }
+
+  /**
+   * 设置日志级别
+   *
+   * @param level {@link Log#VERBOSE} ~ {@link Log#ASSERT}, 或者 {@link #NONE}
+   */
+  public static void setLevel(int level) {
+    sLevel = level;
+  }
+
+  public static int getLevel() {
+    return sLevel;
+  }
+
+  /**
+   * 该级别的日志是否会被输出
+   */
+  public static boolean isLoggable(int level) {
+    return level >= sLevel;
+  }
+
+  /**
+   * 解析 AndroidManifest 中配置的日志级别, 如 {@code debug}、{@code warn}、{@code none}
+   *
+   * @return 无法识别时返回 {@code defaultLevel}
+   */
+  public static int parseLevel(String level, int defaultLevel) {
+    if (level == null) {
+      return defaultLevel;
+    }
+    switch (level.trim().toLowerCase(Locale.ENGLISH)) {
+      case "verbose":
+        return Log.VERBOSE;
+      case "debug":
+        return Log.DEBUG;
+      case "info":
+        return Log.INFO;
+      case "warn":
+        return Log.WARN;
+      case "error":
+        return Log.ERROR;
+      case "none":
+        return NONE;
+      default:
+        return defaultLevel;
+    }
+  }
+
+  /**
+   * 设置适配事件的环形缓冲区, 传入 {@code null} 则恢复输出到 logcat
+   */
+  public static void setEventBuffer(AdaptEventBuffer eventBuffer) {
+    sEventBuffer = eventBuffer;
+  }
+
+  public static AdaptEventBuffer getEventBuffer() {
+    return sEventBuffer;
   }
 
   public static void d(String message) {
-    if (debug) {
+    if (isLoggable(Log.DEBUG)) {
       Log.d(TAG, message);
     }
   }
 
+  public static void d(String format, Object arg) {
+    if (isLoggable(Log.DEBUG)) {
+      Log.d(TAG, String.format(Locale.ENGLISH, format, arg));
+    }
+  }
+
+  public static void d(String format, Object arg1, Object arg2) {
+    if (isLoggable(Log.DEBUG)) {
+      Log.d(TAG, String.format(Locale.ENGLISH, format, arg1, arg2));
+    }
+  }
+
   public static void w(String message) {
-    if (debug) {
+    if (isLoggable(Log.WARN)) {
       Log.w(TAG, message);
     }
   }
 
+  public static void w(String format, Object arg) {
+    if (isLoggable(Log.WARN)) {
+      Log.w(TAG, String.format(Locale.ENGLISH, format, arg));
+    }
+  }
+
+  public static void w(String format, Object arg1, Object arg2) {
+    if (isLoggable(Log.WARN)) {
+      Log.w(TAG, String.format(Locale.ENGLISH, format, arg1, arg2));
+    }
+  }
+
   public static void e(String message) {
-    if (debug) {
+    if (isLoggable(Log.ERROR)) {
       Log.e(TAG, message);
     }
   }
 
+  public static void e(String format, Object arg) {
+    if (isLoggable(Log.ERROR)) {
+      Log.e(TAG, String.format(Locale.ENGLISH, format, arg));
+    }
+  }
+
+  /**
+   * 记录适配策略的选择结果, 设置了 {@link AdaptEventBuffer} 时总是写入其中, 否则按级别输出到 logcat, {@link
+   * AdaptEventBuffer#TYPE_CANCEL} 为 warn 级别, 其余为 debug 级别
+   *
+   * @param type {@link AdaptEventBuffer#TYPE_CANCEL}、{@link AdaptEventBuffer#TYPE_EXTERNAL}、{@link
+   * AdaptEventBuffer#TYPE_CUSTOM} 或 {@link AdaptEventBuffer#TYPE_GLOBAL}
+   * @param target 被适配的对象的 {@link Class}
+   */
+  public static void adaptDecision(int type, Class<?> target) {
+    final AdaptEventBuffer eventBuffer = sEventBuffer;
+    if (eventBuffer != null) {
+      eventBuffer.recordDecision(type, target);
+      return;
+    }
+    final int level = type == AdaptEventBuffer.TYPE_CANCEL ? Log.WARN : Log.DEBUG;
+    if (isLoggable(level)) {
+      Log.println(level, TAG, AdaptEventBuffer.formatDecision(type, target));
+    }
+  }
+
+  /**
+   * 记录一次完成的适配, 设置了 {@link AdaptEventBuffer} 时总是写入其中, 否则按 debug 级别输出到 logcat
+   */
+  public static void adapted(Class<?> target, float sizeInDp, boolean isBaseOnWidth,
+      float density, int densityDpi, float scaledDensity, float xdpi) {
+    final AdaptEventBuffer eventBuffer = sEventBuffer;
+    if (eventBuffer != null) {
+      eventBuffer.recordAdapted(target, sizeInDp, isBaseOnWidth, density, densityDpi,
+          scaledDensity, xdpi);
+    } else if (isLoggable(Log.DEBUG)) {
+      Log.d(TAG, AdaptEventBuffer.formatAdapted(target, sizeInDp, isBaseOnWidth, density,
+          densityDpi, scaledDensity, xdpi));
+    }
+  }
 }
@@ -15,7 +15,9 @@
  */
 package edu.geneve.autosize.utils;
 
+import android.app.Activity;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.graphics.Point;
 import android.os.Build.VERSION;
@@ -24,6 +26,10 @@ import android.provider.Settings;
 import android.util.DisplayMetrics;
 import android.view.Display;
 import android.view.WindowManager;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 屏幕工具
@@ -34,6 +40,21 @@ import android.view.WindowManager;
 
 public class ScreenUtils {
 
+  /**
+   * {@link Display} 中通过反射调用的方法, 进程内只查找一次
+   */
+  private static volatile boolean sDisplayMethodsResolved;
+  private static Method sGetRealSize;
+  private static Method sGetRawWidth;
+  private static Method sGetRawHeight;
+
+  private static final WeakReference<?>[] EMPTY_ACTIVITIES = new WeakReference<?>[0];
+  /**
+   * 处于分屏、自由窗口或者副屏上的 {@link Activity}, 全屏的 {@link Activity} 不在其中; 写时复制, 由 {@link
+   * #updateWindowMode(Activity)} 维护, {@link #getWindowSize(Activity)} 可以在任意线程读取
+   */
+  private static volatile WeakReference<?>[] sWindowedActivities = EMPTY_ACTIVITIES;
+
   private ScreenUtils() {
     throw new IllegalStateException("ScreenUtils can not be instantiated!");
   }
@@ -44,6 +65,7 @@ public class ScreenUtils {
    * @return 状态栏高度，单位 px
    */
   public static int getStatusBarHeight() {
+    final long startNanos = AutoSizeMetrics.startTimer();
     int result = 0;
     try {
       int resourceId = Resources.getSystem().getIdentifier(
@@ -54,6 +76,7 @@ public class ScreenUtils {
     } catch (Resources.NotFoundException e) {
       e.printStackTrace();
     }
+    AutoSizeMetrics.stopTimer(AutoSizeMetrics.TIMER_SCREEN_UTILS, startNanos);
     return result;
   }
 
@@ -61,11 +84,22 @@ public class ScreenUtils {
    * 获取屏幕的宽高
    *
    * @return 屏幕的宽高，单位 px
+   * @see DisplaySizeCache
    */
 
   public static int[] getScreenSize(Context context) {
-    int[] size = new int[2];
+    final long packedSize = measureScreenSize(context);
+    return new int[]{DisplaySizeCache.widthOf(packedSize), DisplaySizeCache.heightOf(packedSize)};
+  }
 
+  /**
+   * 测量屏幕的宽高, 宽度和高度打包在一个 {@code long} 中, 使用 {@link DisplaySizeCache#widthOf(long)} 和 {@link
+   * DisplaySizeCache#heightOf(long)} 解包 反射用到的 {@link Method} 在整个进程中只会查找一次
+   *
+   * @return 打包后的屏幕宽高，单位 px
+   */
+  static long measureScreenSize(Context context) {
+    final long startNanos = AutoSizeMetrics.startTimer();
     WindowManager w = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
 
     Display d = w.getDefaultDisplay();
@@ -75,25 +109,139 @@ public class ScreenUtils {
     int widthPixels = metrics.widthPixels;
     int heightPixels = metrics.heightPixels;
 
+    resolveDisplayMethods();
     if (VERSION.SDK_INT < 17) {
-      try {
-        widthPixels = (int) Display.class.getMethod("getRawWidth").invoke(d);
-        heightPixels = (int) Display.class.getMethod("getRawHeight").invoke(d);
-      } catch (Exception ignored) {
+      if (sGetRawWidth != null && sGetRawHeight != null) {
+        try {
+          widthPixels = (int) sGetRawWidth.invoke(d);
+          heightPixels = (int) sGetRawHeight.invoke(d);
+        } catch (Exception ignored) {
+        }
       }
-    } else {
+    } else if (sGetRealSize != null) {
       try {
         Point realSize = new Point();
-        Display.class.getMethod("getRealSize", Point.class).invoke(d, realSize);
+        sGetRealSize.invoke(d, realSize);
         widthPixels = realSize.x;
         heightPixels = realSize.y;
       } catch (Exception ignored) {
       }
     }
 
-    size[0] = widthPixels;
-    size[1] = heightPixels;
-    return size;
+    AutoSizeMetrics.stopTimer(AutoSizeMetrics.TIMER_SCREEN_UTILS, startNanos);
+    return DisplaySizeCache.pack(widthPixels, heightPixels);
+  }
+
+  /**
+   * 获取 {@link Activity} 所在窗口的尺寸, 用于分屏、自由窗口以及显示在副屏上的 {@link Activity}
+   * <p>
+   * 分屏和自由窗口中 {@link Activity} 的 {@link Configuration} 描述的是窗口而不是整个屏幕, 所以 {@link
+   * #updateWindowMode(Activity)} 记录为窗口模式的 {@link Activity} 以 {@link Configuration#screenWidthDp} 和 {@link
+   * Configuration#screenHeightDp} 换算出的窗口尺寸为准, 这两个值不包含系统栏; 只读取缓存的窗口模式和 {@link Configuration} 的字段,
+   * 不会发起跨进程调用, 没有记录过的 {@link Activity} 视为全屏
+   *
+   * @param activity {@link Activity}
+   * @return 打包后的窗口宽高, 使用 {@link DisplaySizeCache#widthOf(long)} 和 {@link
+   * DisplaySizeCache#heightOf(long)} 解包, 单位 px; {@link Activity} 全屏显示在默认屏幕上或者 Android 4.2 以下返回
+   * {@code 0}, 此时应使用 {@link DisplaySizeCache} 中的屏幕尺寸
+   */
+  public static long getWindowSize(Activity activity) {
+    if (VERSION.SDK_INT < VERSION_CODES.JELLY_BEAN_MR1 || !isWindowed(activity)) {
+      return 0;
+    }
+    final Configuration config = activity.getResources().getConfiguration();
+    if (config.screenWidthDp == Configuration.SCREEN_WIDTH_DP_UNDEFINED
+        || config.screenHeightDp == Configuration.SCREEN_HEIGHT_DP_UNDEFINED
+        || config.densityDpi == Configuration.DENSITY_DPI_UNDEFINED) {
+      return 0;
+    }
+    final float scale = config.densityDpi / (float) DisplayMetrics.DENSITY_DEFAULT;
+    return DisplaySizeCache.pack(Math.round(config.screenWidthDp * scale),
+        Math.round(config.screenHeightDp * scale));
+  }
+
+  /**
+   * {@link #updateWindowMode(Activity)} 最近一次记录的结果, 只有一次 {@code volatile} 读, 可以在任意线程调用
+   *
+   * @return 是否处于分屏、自由窗口或者副屏上
+   */
+  public static boolean isWindowed(Activity activity) {
+    for (WeakReference<?> reference : sWindowedActivities) {
+      if (reference.get() == activity) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 重新判断 {@link Activity} 是否处于窗口模式并记录下来: Android 7.0 及以上 {@link Activity#isInMultiWindowMode()} 为
+   * {@code true}, 或者 {@link Activity} 不在默认屏幕上; 应在主线程的生命周期回调和屏幕配置变化时调用, 不要在每次适配时调用, Android 7.x
+   * 上 {@link Activity#isInMultiWindowMode()} 是一次跨进程调用
+   *
+   * @return 是否处于窗口模式
+   */
+  public static boolean updateWindowMode(Activity activity) {
+    boolean windowed = false;
+    if (VERSION.SDK_INT >= VERSION_CODES.N && activity.isInMultiWindowMode()) {
+      windowed = true;
+    } else if (VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR1) {
+      final WindowManager windowManager = activity.getWindowManager();
+      windowed = windowManager != null
+          && windowManager.getDefaultDisplay().getDisplayId() != Display.DEFAULT_DISPLAY;
+    }
+    setWindowed(activity, windowed);
+    return windowed;
+  }
+
+  /**
+   * {@link Activity} 销毁时调用, 不再记录它的窗口模式
+   */
+  public static void removeWindowMode(Activity activity) {
+    setWindowed(activity, false);
+  }
+
+  private static synchronized void setWindowed(Activity activity, boolean windowed) {
+    final WeakReference<?>[] references = sWindowedActivities;
+    if (!windowed && references.length == 0) {
+      return;
+    }
+    final List<WeakReference<?>> live = new ArrayList<>(references.length + 1);
+    for (WeakReference<?> reference : references) {
+      final Object referent = reference.get();
+      if (referent != null && referent != activity) {
+        live.add(reference);
+      }
+    }
+    if (windowed) {
+      live.add(new WeakReference<>(activity));
+    }
+    sWindowedActivities = live.isEmpty() ? EMPTY_ACTIVITIES
+        : live.toArray(new WeakReference<?>[live.size()]);
+  }
+
+  private static void resolveDisplayMethods() {
+    if (sDisplayMethodsResolved) {
+      return;
+    }
+    synchronized (ScreenUtils.class) {
+      if (sDisplayMethodsResolved) {
+        return;
+      }
+      if (VERSION.SDK_INT < 17) {
+        try {
+          sGetRawWidth = Display.class.getMethod("getRawWidth");
+          sGetRawHeight = Display.class.getMethod("getRawHeight");
+        } catch (Exception ignored) {
+        }
+      } else {
+        try {
+          sGetRealSize = Display.class.getMethod("getRealSize", Point.class);
+        } catch (Exception ignored) {
+        }
+      }
+      sDisplayMethodsResolved = true;
+    }
   }
 
   /**
@@ -102,9 +250,21 @@ public class ScreenUtils {
    * @return 导航栏的高度，单位 px
    */
   public static int getNavigationBarHeight(Context context) {
+    return getNavigationBarHeight(context, DisplaySizeCache.heightOf(measureScreenSize(context)));
+  }
+
+  /**
+   * 获取导航栏的高度 若开启全面屏手势，返回高度为0
+   *
+   * @param realHeight 已经测量好的屏幕实际高度，单位 px
+   * @return 导航栏的高度，单位 px
+   */
+  public static int getNavigationBarHeight(Context context, int realHeight) {
+    final long startNanos = AutoSizeMetrics.startTimer();
     if (VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR1) {
       if (Settings.Global.getInt(
           context.getContentResolver(), "force_fsg_nav_bar", 0) != 0) {
+        AutoSizeMetrics.stopTimer(AutoSizeMetrics.TIMER_SCREEN_UTILS, startNanos);
         return 0;
       }
     }
@@ -112,13 +272,12 @@ public class ScreenUtils {
     Display d = ((WindowManager) context
         .getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
 
-    int realHeight = getScreenSize(context)[1];
-
     DisplayMetrics metrics = new DisplayMetrics();
     d.getMetrics(metrics);
 
     int displayHeight = metrics.heightPixels;
 
+    AutoSizeMetrics.stopTimer(AutoSizeMetrics.TIMER_SCREEN_UTILS, startNanos);
     return realHeight - displayHeight;
   }
 }
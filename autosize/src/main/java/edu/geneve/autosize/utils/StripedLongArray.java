@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按线程分片的一组 {@code long} 计数器, 每个线程固定写入其中一片, 读取时把所有分片相加
+ * <p>
+ * 每一片占用独立的缓存行, 多个线程同时写入时不会互相争用, 写入只有一次 CAS, 不加锁也不分配对象; 读取得到的不是所有计数器在同一时刻的值
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+final class StripedLongArray {
+
+  /**
+   * 每个缓存行可以容纳的 {@code long} 数量
+   */
+  private static final int LONGS_PER_CACHE_LINE = 8;
+  private static final int MAX_STRIPES = 64;
+
+  private final int mWidth;
+  private final int mStride;
+  private final int mMask;
+  private final AtomicLongArray mValues;
+
+  /**
+   * @param width 每一片中计数器的数量
+   */
+  StripedLongArray(int width) {
+    int stripes = 1;
+    final int target = Math.min(Runtime.getRuntime().availableProcessors() * 2, MAX_STRIPES);
+    while (stripes < target) {
+      stripes <<= 1;
+    }
+    mWidth = width;
+    // 额外留出一个缓存行, 避免相邻两片落在同一个缓存行上
+    mStride = ((width + LONGS_PER_CACHE_LINE - 1) / LONGS_PER_CACHE_LINE + 1)
+        * LONGS_PER_CACHE_LINE;
+    mMask = stripes - 1;
+    mValues = new AtomicLongArray(stripes * mStride);
+  }
+
+  /**
+   * 每一片中计数器的数量
+   */
+  int width() {
+    return mWidth;
+  }
+
+  /**
+   * 当前线程所在分片的起始下标
+   */
+  int base() {
+    long id = Thread.currentThread().getId();
+    id *= 0x9E3779B97F4A7C15L;
+    return ((int) (id >>> 32) & mMask) * mStride;
+  }
+
+  void add(int index, long delta) {
+    mValues.getAndAdd(base() + index, delta);
+  }
+
+  /**
+   * 在已经通过 {@link #base()} 得到的分片中累加, 一次记录需要修改多个计数器时使用
+   */
+  void addAt(int base, int index, long delta) {
+    mValues.getAndAdd(base + index, delta);
+  }
+
+  /**
+   * 所有分片中第 {@code index} 个计数器之和
+   */
+  long sum(int index) {
+    long sum = 0;
+    for (int base = 0; base < mValues.length(); base += mStride) {
+      sum += mValues.get(base + index);
+    }
+    return sum;
+  }
+
+  void reset() {
+    for (int i = 0; i < mValues.length(); i++) {
+      mValues.set(i, 0);
+    }
+  }
+}
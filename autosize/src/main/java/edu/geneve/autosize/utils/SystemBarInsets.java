@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.utils;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build.VERSION_CODES;
+import android.view.WindowInsets;
+
+/**
+ * 状态栏和导航栏高度的缓存模型
+ * <p>
+ * 以前 {@link edu.geneve.autosize.AutoSizeConfig#getScreenHeight()} 每次都要通过 {@link
+ * android.content.res.Resources#getIdentifier} 查找状态栏高度, 再读取 {@link android.provider.Settings} 和测量屏幕来计算导航栏高度,
+ * 现在两个高度只在第一次使用、配置变化以及收到 {@link WindowInsets} 时计算, 打包在一个 {@code volatile long} 中, 读取时只有一次字段读
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class SystemBarInsets {
+
+  /**
+   * 表示还没有计算过, 正常的高度不会是负数
+   */
+  private static final long UNRESOLVED = -1L;
+
+  private final Context mContext;
+  private final DisplaySizeCache mDisplaySizeCache;
+  private volatile long mPackedInsets = UNRESOLVED;
+
+  public SystemBarInsets(Context context, DisplaySizeCache displaySizeCache) {
+    mContext = Preconditions.checkNotNull(context, "context is NULL").getApplicationContext();
+    mDisplaySizeCache = Preconditions
+        .checkNotNull(displaySizeCache, "displaySizeCache is NULL");
+  }
+
+  /**
+   * 获取打包后的状态栏和导航栏高度, 从未计算过时会先计算一次
+   *
+   * @return 使用 {@link DisplaySizeCache#widthOf(long)} 取出状态栏高度, {@link DisplaySizeCache#heightOf(long)}
+   * 取出导航栏高度, 单位 px
+   */
+  public long getPackedInsets() {
+    final long packedInsets = mPackedInsets;
+    return packedInsets != UNRESOLVED ? packedInsets : refresh();
+  }
+
+  /**
+   * 获取状态栏高度，单位 px
+   */
+  public int getStatusBarHeight() {
+    return DisplaySizeCache.widthOf(getPackedInsets());
+  }
+
+  /**
+   * 获取导航栏高度，单位 px
+   */
+  public int getNavigationBarHeight() {
+    return DisplaySizeCache.heightOf(getPackedInsets());
+  }
+
+  /**
+   * 获取状态栏与导航栏的高度之和, 两个高度来自同一次写入，单位 px
+   */
+  public int getVerticalInsets() {
+    final long packedInsets = getPackedInsets();
+    return DisplaySizeCache.widthOf(packedInsets) + DisplaySizeCache.heightOf(packedInsets);
+  }
+
+  /**
+   * 立即重新计算状态栏和导航栏的高度
+   *
+   * @return 打包后的状态栏和导航栏高度
+   */
+  public long refresh() {
+    final long packedInsets = DisplaySizeCache.pack(ScreenUtils.getStatusBarHeight(),
+        ScreenUtils.getNavigationBarHeight(mContext, mDisplaySizeCache.getHeight()));
+    mPackedInsets = packedInsets;
+    return packedInsets;
+  }
+
+  /**
+   * 标记为需要重新计算, 由 {@link android.content.ComponentCallbacks#onConfigurationChanged} 调用, 下一次读取时才重新计算
+   */
+  public void invalidate() {
+    mPackedInsets = UNRESOLVED;
+  }
+
+  /**
+   * 直接更新状态栏和导航栏的高度, 用于外部已经拿到准确的系统栏尺寸的情况
+   *
+   * @param statusBarHeight 状态栏高度，单位 px
+   * @param navigationBarHeight 导航栏高度，单位 px
+   */
+  public void update(int statusBarHeight, int navigationBarHeight) {
+    mPackedInsets = DisplaySizeCache
+        .pack(Math.max(statusBarHeight, 0), Math.max(navigationBarHeight, 0));
+  }
+
+  /**
+   * 使用 {@link WindowInsets} 更新状态栏和导航栏的高度, 可以在 {@link android.view.View.OnApplyWindowInsetsListener} 中调用
+   * 横屏时导航栏位于屏幕侧边, 不占用高度, 所以只取底部的 inset
+   *
+   * @param insets 窗口的 {@link WindowInsets}
+   */
+  @TargetApi(VERSION_CODES.KITKAT_WATCH)
+  public void update(WindowInsets insets) {
+    if (insets == null) {
+      return;
+    }
+    update(insets.getSystemWindowInsetTop(), insets.getSystemWindowInsetBottom());
+  }
+}
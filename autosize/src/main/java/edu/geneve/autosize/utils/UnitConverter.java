@@ -0,0 +1,318 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize.utils;
+
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+
+/**
+ * {@link UnitConverter} 是某一时刻 {@link DisplayMetrics} 中换算系数的不可变快照, 通过 {@link
+ * AutoSizeUtils#getConverter(android.content.Context)} 获取
+ * <p>
+ * 换算结果与 {@link TypedValue#applyDimension(int, float, DisplayMetrics)} 以及 {@link AutoSizeUtils#dp2px}
+ * 等方法完全一致, 但不再每次读取 {@link android.content.res.Resources} 和 {@link DisplayMetrics}, 批量方法直接写入调用方提供的数组,
+ * 不会产生对象分配; 换算系数均为 {@code final} 字段, 可以在任意线程 (例如图片加载线程) 中使用
+ * <p>
+ * AutoSize 每次真正写入 {@link DisplayMetrics} 或屏幕配置变化后都会递增全局版本号, {@link #isStale()} 只需要一次 {@code volatile}
+ * 读就能知道快照是否已经过期
+ * <p>
+ * 参数为 {@code int} 的 {@link #dp2px(int)} 和 {@link #sp2px(int)} 对 {@code 0} ~ {@code 1000} 之间的值直接查表, 查找表在第一次使用时按当前系数创建,
+ * 相同系数的查找表在所有快照之间共享
+ * <p>
+ * Example usage:
+ * <pre>
+ * UnitConverter converter = AutoSizeUtils.getConverter(context);
+ * converter.convert(TypedValue.COMPLEX_UNIT_DIP, dpValues, 0, pxValues, 0, dpValues.length);
+ * </pre>
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class UnitConverter {
+
+  private static volatile int sVersion;
+
+  final DisplayMetrics mSource;
+  private final int mVersion;
+  private final float mDensity;
+  private final float mScaledDensity;
+  private final float mXdpi;
+  /**
+   * 延迟获取的查找表, 只会从 {@code null} 变为 {@link DimensionTables#obtain(float)} 的结果, 多个线程同时获取时结果相同
+   */
+  private volatile int[] mDpTable;
+  private volatile int[] mSpTable;
+
+  UnitConverter(DisplayMetrics source, int version) {
+    mSource = source;
+    mVersion = version;
+    mDensity = source.density;
+    mScaledDensity = source.scaledDensity;
+    mXdpi = source.xdpi;
+  }
+
+  /**
+   * 当前的全局版本号
+   */
+  static int currentVersion() {
+    return sVersion;
+  }
+
+  /**
+   * 让所有已经创建的 {@link UnitConverter} 过期, 必须在 {@link DisplayMetrics} 写入完成之后调用
+   */
+  static synchronized void invalidateAll() {
+    sVersion++;
+  }
+
+  /**
+   * 创建快照时的全局版本号
+   */
+  public int getVersion() {
+    return mVersion;
+  }
+
+  /**
+   * 创建快照之后 AutoSize 是否修改过 {@link DisplayMetrics} 或者屏幕配置是否发生过变化, 过期后请重新调用 {@link
+   * AutoSizeUtils#getConverter(android.content.Context)}
+   *
+   * @return {@code true} 为已过期
+   */
+  public boolean isStale() {
+    return mVersion != sVersion;
+  }
+
+  public int dp2px(float value) {
+    return (int) (value * mDensity + 0.5f);
+  }
+
+  public int sp2px(float value) {
+    return (int) (value * mScaledDensity + 0.5f);
+  }
+
+  /**
+   * 与 {@link #dp2px(float)} 结果相同, {@code 0} ~ {@code 1000} 之间的值直接查表
+   */
+  public int dp2px(int value) {
+    if (value >= 0 && value <= DimensionTables.MAX_VALUE) {
+      return dpTable()[value];
+    }
+    return (int) (value * mDensity + 0.5f);
+  }
+
+  /**
+   * 与 {@link #sp2px(float)} 结果相同, {@code 0} ~ {@code 1000} 之间的值直接查表
+   */
+  public int sp2px(int value) {
+    if (value >= 0 && value <= DimensionTables.MAX_VALUE) {
+      return spTable()[value];
+    }
+    return (int) (value * mScaledDensity + 0.5f);
+  }
+
+  public int pt2px(float value) {
+    return (int) (value * mXdpi * (1.0f / 72) + 0.5f);
+  }
+
+  public int in2px(float value) {
+    return (int) (value * mXdpi + 0.5f);
+  }
+
+  public int mm2px(float value) {
+    return (int) (value * mXdpi * (1.0f / 25.4f) + 0.5f);
+  }
+
+  /**
+   * 与 {@link TypedValue#applyDimension(int, float, DisplayMetrics)} 相同
+   *
+   * @param unit {@link TypedValue#COMPLEX_UNIT_PX} ~ {@link TypedValue#COMPLEX_UNIT_MM}
+   * @param value 需要换算的值
+   * @return 换算后的值, 单位 px, 不支持的单位返回 {@code 0}
+   */
+  public float applyDimension(int unit, float value) {
+    switch (unit) {
+      case TypedValue.COMPLEX_UNIT_PX:
+        return value;
+      case TypedValue.COMPLEX_UNIT_DIP:
+        return value * mDensity;
+      case TypedValue.COMPLEX_UNIT_SP:
+        return value * mScaledDensity;
+      case TypedValue.COMPLEX_UNIT_PT:
+        return value * mXdpi * (1.0f / 72);
+      case TypedValue.COMPLEX_UNIT_IN:
+        return value * mXdpi;
+      case TypedValue.COMPLEX_UNIT_MM:
+        return value * mXdpi * (1.0f / 25.4f);
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * 批量换算, 结果为 {@code float}
+   *
+   * @param unit {@link TypedValue#COMPLEX_UNIT_PX} ~ {@link TypedValue#COMPLEX_UNIT_MM}
+   * @param src 需要换算的值
+   * @param srcPos {@code src} 的起始位置
+   * @param dst 保存结果的数组, 可以与 {@code src} 是同一个数组
+   * @param dstPos {@code dst} 的起始位置
+   * @param length 数量
+   */
+  public void convert(int unit, float[] src, int srcPos, float[] dst, int dstPos, int length) {
+    checkRange(src.length, srcPos, dst.length, dstPos, length);
+    switch (unit) {
+      case TypedValue.COMPLEX_UNIT_PX:
+        System.arraycopy(src, srcPos, dst, dstPos, length);
+        break;
+      case TypedValue.COMPLEX_UNIT_DIP:
+        scale(src, srcPos, dst, dstPos, length, mDensity);
+        break;
+      case TypedValue.COMPLEX_UNIT_SP:
+        scale(src, srcPos, dst, dstPos, length, mScaledDensity);
+        break;
+      case TypedValue.COMPLEX_UNIT_IN:
+        scale(src, srcPos, dst, dstPos, length, mXdpi);
+        break;
+      default:
+        for (int i = 0; i < length; i++) {
+          dst[dstPos + i] = applyDimension(unit, src[srcPos + i]);
+        }
+        break;
+    }
+  }
+
+  /**
+   * 批量换算, 结果与 {@link #dp2px(float)} 等方法一样四舍五入为 {@code int}
+   *
+   * @param unit {@link TypedValue#COMPLEX_UNIT_PX} ~ {@link TypedValue#COMPLEX_UNIT_MM}
+   * @param src 需要换算的值
+   * @param srcPos {@code src} 的起始位置
+   * @param dst 保存结果的数组
+   * @param dstPos {@code dst} 的起始位置
+   * @param length 数量
+   */
+  public void convert(int unit, float[] src, int srcPos, int[] dst, int dstPos, int length) {
+    checkRange(src.length, srcPos, dst.length, dstPos, length);
+    switch (unit) {
+      case TypedValue.COMPLEX_UNIT_DIP:
+        round(src, srcPos, dst, dstPos, length, mDensity);
+        break;
+      case TypedValue.COMPLEX_UNIT_SP:
+        round(src, srcPos, dst, dstPos, length, mScaledDensity);
+        break;
+      case TypedValue.COMPLEX_UNIT_IN:
+        round(src, srcPos, dst, dstPos, length, mXdpi);
+        break;
+      default:
+        for (int i = 0; i < length; i++) {
+          dst[dstPos + i] = (int) (applyDimension(unit, src[srcPos + i]) + 0.5f);
+        }
+        break;
+    }
+  }
+
+  /**
+   * 批量换算整数值, 结果与 {@link #convert(int, float[], int, int[], int, int)} 相同, dp 和 sp 会使用查找表
+   *
+   * @param unit {@link TypedValue#COMPLEX_UNIT_PX} ~ {@link TypedValue#COMPLEX_UNIT_MM}
+   * @param src 需要换算的值
+   * @param srcPos {@code src} 的起始位置
+   * @param dst 保存结果的数组, 可以与 {@code src} 是同一个数组
+   * @param dstPos {@code dst} 的起始位置
+   * @param length 数量
+   */
+  public void convert(int unit, int[] src, int srcPos, int[] dst, int dstPos, int length) {
+    checkRange(src.length, srcPos, dst.length, dstPos, length);
+    switch (unit) {
+      case TypedValue.COMPLEX_UNIT_PX:
+        System.arraycopy(src, srcPos, dst, dstPos, length);
+        break;
+      case TypedValue.COMPLEX_UNIT_DIP:
+        lookup(src, srcPos, dst, dstPos, length, dpTable(), mDensity);
+        break;
+      case TypedValue.COMPLEX_UNIT_SP:
+        lookup(src, srcPos, dst, dstPos, length, spTable(), mScaledDensity);
+        break;
+      default:
+        for (int i = 0; i < length; i++) {
+          dst[dstPos + i] = (int) (applyDimension(unit, src[srcPos + i]) + 0.5f);
+        }
+        break;
+    }
+  }
+
+  private int[] dpTable() {
+    int[] table = mDpTable;
+    if (table == null) {
+      table = DimensionTables.obtain(mDensity);
+      mDpTable = table;
+    }
+    return table;
+  }
+
+  private int[] spTable() {
+    int[] table = mSpTable;
+    if (table == null) {
+      table = DimensionTables.obtain(mScaledDensity);
+      mSpTable = table;
+    }
+    return table;
+  }
+
+  private static void lookup(int[] src, int srcPos, int[] dst, int dstPos, int length,
+      int[] table, float factor) {
+    for (int i = 0; i < length; i++) {
+      final int value = src[srcPos + i];
+      dst[dstPos + i] = value >= 0 && value <= DimensionTables.MAX_VALUE ? table[value]
+          : (int) (value * factor + 0.5f);
+    }
+  }
+
+  private static void scale(float[] src, int srcPos, float[] dst, int dstPos, int length,
+      float factor) {
+    for (int i = 0; i < length; i++) {
+      dst[dstPos + i] = src[srcPos + i] * factor;
+    }
+  }
+
+  private static void round(float[] src, int srcPos, int[] dst, int dstPos, int length,
+      float factor) {
+    for (int i = 0; i < length; i++) {
+      dst[dstPos + i] = (int) (src[srcPos + i] * factor + 0.5f);
+    }
+  }
+
+  private static void checkRange(int srcLength, int srcPos, int dstLength, int dstPos,
+      int length) {
+    if (length < 0 || srcPos < 0 || dstPos < 0 || srcPos > srcLength - length
+        || dstPos > dstLength - length) {
+      throw new ArrayIndexOutOfBoundsException(
+          "srcPos=" + srcPos + ", dstPos=" + dstPos + ", length=" + length);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return
+        "UnitConverter{" +
+            "version=" + mVersion +
+            ", density=" + mDensity +
+            ", scaledDensity=" + mScaledDensity +
+            ", xdpi=" + mXdpi +
+            '}';
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Activity;
+import edu.geneve.autosize.external.ExternalAdaptInfo;
+import edu.geneve.autosize.internal.CancelAdapt;
+import edu.geneve.autosize.internal.CustomAdapt;
+import edu.geneve.autosize.internal.DynamicAdapt;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DefaultAutoAdaptStrategy#applyAdapt(Object, Activity)} 各个分支的开销
+ * <ul>
+ * <li>{@code cancel}: 实现了 {@link CancelAdapt}</li>
+ * <li>{@code external}: 通过 {@link edu.geneve.autosize.external.ExternalAdaptManager} 提供适配参数</li>
+ * <li>{@code custom}: 实现了 {@link CustomAdapt}</li>
+ * <li>{@code dynamic}: 实现了 {@link DynamicAdapt}, 每次都重新读取适配参数</li>
+ * <li>{@code global}: 使用全局配置</li>
+ * </ul>
+ * <p>
+ * 与 {@link ActivityLifecycleCallbacksImpl} 一样经过 {@link AdaptTracer}, {@code listening} 为 {@code true} 时注册一个空的
+ * {@link AdaptListener}, 用于衡量分发 {@link AdaptEvent} 的开销
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ApplyAdaptBenchmark {
+
+  @Param({"cancel", "external", "custom", "dynamic", "global"})
+  public String branch;
+
+  @Param({"false", "true"})
+  public boolean listening;
+
+  private final AutoAdaptStrategy mStrategy = new DefaultAutoAdaptStrategy();
+  private Activity mActivity;
+  private final AdaptListener mListener = new AdaptListener() {
+    @Override
+    public void onAdaptBegin(AdaptEvent event) {
+    }
+
+    @Override
+    public void onAdaptEnd(AdaptEvent event) {
+    }
+  };
+
+  @Setup
+  public void setUp() {
+    BenchmarkEnvironment.application();
+    AutoSizeConfig.getInstance().getExternalAdaptManager()
+        .addExternalAdaptInfoOfActivity(ExternalActivity.class, new ExternalAdaptInfo(true, 400));
+    switch (branch) {
+      case "cancel":
+        mActivity = new CanceledActivity();
+        break;
+      case "external":
+        mActivity = new ExternalActivity();
+        break;
+      case "custom":
+        mActivity = new CustomActivity();
+        break;
+      case "dynamic":
+        mActivity = new DynamicActivity();
+        break;
+      case "global":
+        mActivity = new Activity();
+        break;
+      default:
+        throw new IllegalArgumentException(branch);
+    }
+    BenchmarkEnvironment.launch(mActivity);
+    if (listening) {
+      AutoSizeConfig.getInstance().addAdaptListener(mListener);
+    } else {
+      AutoSizeConfig.getInstance().removeAdaptListener(mListener);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    AutoSizeConfig.getInstance().removeAdaptListener(mListener);
+  }
+
+  @Benchmark
+  public void applyAdapt() {
+    AutoSizeConfig.getInstance().getAdaptTracer().applyAdapt(mStrategy, mActivity, mActivity);
+  }
+
+  public static class CanceledActivity extends Activity implements CancelAdapt {
+
+  }
+
+  public static class ExternalActivity extends Activity {
+
+  }
+
+  public static class CustomActivity extends Activity implements CustomAdapt {
+
+    @Override
+    public boolean isBaseOnWidth() {
+      return false;
+    }
+
+    @Override
+    public float getSizeInDp() {
+      return 720;
+    }
+  }
+
+  public static class DynamicActivity extends CustomActivity implements DynamicAdapt {
+
+  }
+}
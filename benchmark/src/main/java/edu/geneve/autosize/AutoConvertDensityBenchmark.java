@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Activity;
+import edu.geneve.autosize.utils.AutoSizeMetrics;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link AutoSize#autoConvertDensity(Activity, float, boolean)} 命中缓存与未命中缓存时的开销
+ * <p>
+ * {@link #cacheMiss} 每次调用前都会清空缓存 ({@link Level#Invocation}), 结果中包含少量 JMH 自身的开销
+ * <p>
+ * {@code timing} 为 {@code true} 时开启 {@link AutoSizeMetrics#setTimingEnabled(boolean)}, 用于衡量耗时统计本身的开销
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutoConvertDensityBenchmark {
+
+  @Param({"false", "true"})
+  public boolean timing;
+
+  private Activity mActivity;
+
+  @Setup
+  public void setUp() {
+    AutoSizeMetrics.setTimingEnabled(timing);
+    mActivity = BenchmarkEnvironment.launch(new Activity());
+    AutoSize.autoConvertDensity(mActivity, BenchmarkEnvironment.DESIGN_WIDTH_IN_DP, true);
+  }
+
+  @Benchmark
+  public void cacheHit() {
+    AutoSize.autoConvertDensity(mActivity, BenchmarkEnvironment.DESIGN_WIDTH_IN_DP, true);
+  }
+
+  @Benchmark
+  public void cacheMiss(EmptyCache emptyCache) {
+    AutoSize.autoConvertDensity(mActivity, BenchmarkEnvironment.DESIGN_WIDTH_IN_DP, true);
+  }
+
+  @State(Scope.Thread)
+  public static class EmptyCache {
+
+    @Setup(Level.Invocation)
+    public void clear() {
+      BenchmarkEnvironment.clearDensityCache();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Activity;
+import android.util.TypedValue;
+import edu.geneve.autosize.utils.AutoSizeUtils;
+import edu.geneve.autosize.utils.UnitConverter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link AutoSizeUtils} 中各个单位转换方法的开销
+ * <p>
+ * {@code converter*} 使用 {@link UnitConverter} 快照, {@code table*} 使用整数 dp 的查找表, {@code bulk*} 一次换算 {@link
+ * #BULK_SIZE} 个值
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutoSizeUtilsBenchmark {
+
+  private static final int BULK_SIZE = 64;
+
+  private Activity mActivity;
+  private float mValue = 16f;
+  private UnitConverter mConverter;
+  private int mIntValue = 16;
+  private final float[] mSrc = new float[BULK_SIZE];
+  private final int[] mIntSrc = new int[BULK_SIZE];
+  private final float[] mFloatDst = new float[BULK_SIZE];
+  private final int[] mIntDst = new int[BULK_SIZE];
+
+  @Setup
+  public void setUp() {
+    mActivity = BenchmarkEnvironment.launch(new Activity());
+    AutoSize.autoConvertDensityOfGlobal(mActivity);
+    mConverter = AutoSizeUtils.getConverter(mActivity);
+    for (int i = 0; i < BULK_SIZE; i++) {
+      mSrc[i] = i * 0.5f;
+      mIntSrc[i] = i * 8;
+    }
+  }
+
+  @Benchmark
+  public int dp2px() {
+    return AutoSizeUtils.dp2px(mActivity, mValue);
+  }
+
+  @Benchmark
+  public int sp2px() {
+    return AutoSizeUtils.sp2px(mActivity, mValue);
+  }
+
+  @Benchmark
+  public int pt2px() {
+    return AutoSizeUtils.pt2px(mActivity, mValue);
+  }
+
+  @Benchmark
+  public int in2px() {
+    return AutoSizeUtils.in2px(mActivity, mValue);
+  }
+
+  @Benchmark
+  public int mm2px() {
+    return AutoSizeUtils.mm2px(mActivity, mValue);
+  }
+
+  @Benchmark
+  public UnitConverter getConverter() {
+    return AutoSizeUtils.getConverter(mActivity);
+  }
+
+  @Benchmark
+  public int converterDp2px() {
+    return mConverter.dp2px(mValue);
+  }
+
+  @Benchmark
+  public int tableDp2px() {
+    return mConverter.dp2px(mIntValue);
+  }
+
+  @Benchmark
+  public int[] bulkTableDp2px() {
+    mConverter.convert(TypedValue.COMPLEX_UNIT_DIP, mIntSrc, 0, mIntDst, 0, BULK_SIZE);
+    return mIntDst;
+  }
+
+  @Benchmark
+  public int[] loopDp2px() {
+    for (int i = 0; i < BULK_SIZE; i++) {
+      mIntDst[i] = AutoSizeUtils.dp2px(mActivity, mSrc[i]);
+    }
+    return mIntDst;
+  }
+
+  @Benchmark
+  public int[] bulkDp2px() {
+    mConverter.convert(TypedValue.COMPLEX_UNIT_DIP, mSrc, 0, mIntDst, 0, BULK_SIZE);
+    return mIntDst;
+  }
+
+  @Benchmark
+  public float[] bulkSpFloat() {
+    mConverter.convert(TypedValue.COMPLEX_UNIT_SP, mSrc, 0, mFloatDst, 0, BULK_SIZE);
+    return mFloatDst;
+  }
+}
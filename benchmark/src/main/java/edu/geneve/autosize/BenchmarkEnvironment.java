@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.hardware.display.DisplayManager;
+import android.os.Bundle;
+import android.util.DisplayMetrics;
+import android.view.Display;
+import android.view.WindowManager;
+import edu.geneve.autosize.utils.LogUtils;
+
+/**
+ * 基准测试使用的模拟设备, 参数取自一台常见的 1080 x 2340, 440 dpi 的手机
+ * <p>
+ * {@link AutoSizeConfig} 是单例, 所以整个 JVM 只会初始化一次
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+public final class BenchmarkEnvironment {
+
+  public static final int SCREEN_WIDTH = 1080;
+  public static final int SCREEN_HEIGHT = 2340;
+  public static final int DESIGN_WIDTH_IN_DP = 360;
+  public static final int DESIGN_HEIGHT_IN_DP = 640;
+  private static final int DENSITY_DPI = 440;
+
+  private static Application sApplication;
+
+  private BenchmarkEnvironment() {
+    throw new IllegalStateException("BenchmarkEnvironment can not be instantiated!");
+  }
+
+  /**
+   * 获取已经通过 {@link AutoSizeConfig.Builder} 完成初始化的 {@link Application}
+   */
+  public static synchronized Application application() {
+    if (sApplication == null) {
+      Resources.setSystem(new Resources(newDisplayMetrics(), new Configuration()));
+      Application application = new Application();
+      application.attach(new DeviceContext(application));
+      new AutoSizeConfig.Builder(application)
+          .designSizeInDp(DESIGN_WIDTH_IN_DP, DESIGN_HEIGHT_IN_DP)
+          .useDeviceSize(true)
+          .logLevel(LogUtils.NONE)
+          .build();
+      sApplication = application;
+    }
+    return sApplication;
+  }
+
+  /**
+   * 模拟系统启动 {@link Activity}, 每个 {@link Activity} 拥有自己的 {@link Resources}
+   */
+  public static <T extends Activity> T launch(T activity) {
+    activity.attach(new DeviceContext(application()));
+    return activity;
+  }
+
+  /**
+   * 清空 {@link AutoSize} 中的 {@link DisplayMetricsInfo} 缓存
+   */
+  public static void clearDensityCache() {
+    AutoSize.clearCache();
+  }
+
+  private static DisplayMetrics newDisplayMetrics() {
+    DisplayMetrics metrics = new DisplayMetrics();
+    metrics.widthPixels = SCREEN_WIDTH;
+    metrics.heightPixels = SCREEN_HEIGHT;
+    metrics.densityDpi = DENSITY_DPI;
+    metrics.density = DENSITY_DPI / (float) DisplayMetrics.DENSITY_DEFAULT;
+    metrics.scaledDensity = metrics.density;
+    metrics.xdpi = DENSITY_DPI;
+    metrics.ydpi = DENSITY_DPI;
+    return metrics;
+  }
+
+  /**
+   * 模拟 {@code ContextImpl}, 提供 {@link Resources}、{@link WindowManager}、{@link DisplayManager} 和 {@link
+   * PackageManager}
+   */
+  private static final class DeviceContext extends Context {
+
+    private final Application mApplication;
+    private final Resources mResources = new Resources(newDisplayMetrics(), new Configuration());
+    private final ContentResolver mContentResolver = new ContentResolver();
+    private final DisplayManager mDisplayManager = new DisplayManager();
+    private final ApplicationInfo mApplicationInfo = new ApplicationInfo();
+    private final WindowManager mWindowManager = new WindowManager() {
+      private final Display mDisplay = new Display(Display.DEFAULT_DISPLAY, newDisplayMetrics(),
+          SCREEN_WIDTH, SCREEN_HEIGHT);
+
+      @Override
+      public Display getDefaultDisplay() {
+        return mDisplay;
+      }
+    };
+    private final PackageManager mPackageManager = new PackageManager() {
+      @Override
+      public ApplicationInfo getApplicationInfo(String packageName, int flags) {
+        return mApplicationInfo;
+      }
+    };
+
+    DeviceContext(Application application) {
+      mApplication = application;
+      mApplicationInfo.metaData = new Bundle();
+      mApplicationInfo.metaData.putInt("design_width_in_dp", DESIGN_WIDTH_IN_DP);
+      mApplicationInfo.metaData.putInt("design_height_in_dp", DESIGN_HEIGHT_IN_DP);
+    }
+
+    @Override
+    public Resources getResources() {
+      return mResources;
+    }
+
+    @Override
+    public Context getApplicationContext() {
+      return mApplication;
+    }
+
+    @Override
+    public Object getSystemService(String name) {
+      if (Context.WINDOW_SERVICE.equals(name)) {
+        return mWindowManager;
+      }
+      return Context.DISPLAY_SERVICE.equals(name) ? mDisplayManager : null;
+    }
+
+    @Override
+    public PackageManager getPackageManager() {
+      return mPackageManager;
+    }
+
+    @Override
+    public String getPackageName() {
+      return "edu.geneve.autosize.benchmark";
+    }
+
+    @Override
+    public ContentResolver getContentResolver() {
+      return mContentResolver;
+    }
+
+    @Override
+    public ApplicationInfo getApplicationInfo() {
+      return mApplicationInfo;
+    }
+  }
+}
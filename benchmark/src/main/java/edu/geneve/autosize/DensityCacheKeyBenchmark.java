@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 对比旧的 {@link String} 拼接 key 与 {@link DisplayMetricsCache} 的基本类型 key 在命中缓存时的开销
+ * <p>
+ * {@link #evictingPut()} 每次都存入新的屏幕尺寸, 缓存始终是满的, 用于衡量 CLOCK 淘汰和重建表的开销
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DensityCacheKeyBenchmark {
+
+  private static final DisplayMetricsInfo INFO = new DisplayMetricsInfo(3f, 480, 3f, 3f);
+
+  private final Map<String, DisplayMetricsInfo> mStringCache = new ConcurrentHashMap<>();
+  private final DisplayMetricsCache mPrimitiveCache = new DisplayMetricsCache();
+
+  private float mSizeInDp = BenchmarkEnvironment.DESIGN_WIDTH_IN_DP;
+  private boolean isBaseOnWidth = true;
+  private boolean isUseDeviceSize = false;
+  private float mInitScaledDensity = 2.75f;
+  private int mScreenSize = BenchmarkEnvironment.SCREEN_WIDTH;
+  private int mNextScreenSize;
+
+  @Setup
+  public void setUp() {
+    mStringCache.put(buildStringKey(), INFO);
+    mPrimitiveCache.put(mSizeInDp, isBaseOnWidth, isUseDeviceSize, mInitScaledDensity,
+        mScreenSize, INFO);
+  }
+
+  @Benchmark
+  public DisplayMetricsInfo stringKey() {
+    return mStringCache.get(buildStringKey());
+  }
+
+  @Benchmark
+  public DisplayMetricsInfo primitiveKey() {
+    return mPrimitiveCache
+        .get(mSizeInDp, isBaseOnWidth, isUseDeviceSize, mInitScaledDensity, mScreenSize);
+  }
+
+  /**
+   * 旧版 {@link AutoSize#autoConvertDensity} 中的 key
+   */
+  private String buildStringKey() {
+    return mSizeInDp + "|" + isBaseOnWidth + "|" + isUseDeviceSize + "|"
+        + mInitScaledDensity + "|" + mScreenSize;
+  }
+
+  @Benchmark
+  public DisplayMetricsCache evictingPut() {
+    mPrimitiveCache.put(mSizeInDp, isBaseOnWidth, isUseDeviceSize, mInitScaledDensity,
+        mNextScreenSize++ & 0xFFFF, INFO);
+    return mPrimitiveCache;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import edu.geneve.autosize.engine.DensityEngine;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DensityEngine} 中核心计算的开销, 不经过缓存, 也不依赖任何 Android 替身
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DensityEngineBenchmark {
+
+  private int mWidth = 1080;
+  private int mHeight = 1920;
+  private float mSizeInDp = BenchmarkEnvironment.DESIGN_WIDTH_IN_DP;
+  private float mInitDensity = 3.0f;
+  private float mInitScaledDensity = 3.3f;
+
+  @Benchmark
+  public long resolve() {
+    int screenSize = DensityEngine.selectScreenSize(mWidth, mHeight, true, true, 0);
+    return DensityEngine.resolve(screenSize, mSizeInDp, mInitDensity, mInitScaledDensity);
+  }
+
+  @Benchmark
+  public boolean isApplied() {
+    long resolved = DensityEngine.resolve(mWidth, mSizeInDp, mInitDensity, mInitScaledDensity);
+    return DensityEngine.isApplied(mInitDensity, 480, mInitScaledDensity, 440f,
+        DensityEngine.densityOf(resolved), DensityEngine.densityDpiOf(resolved),
+        DensityEngine.scaledDensityOf(resolved), DensityEngine.xdpiOf(resolved), true, true,
+        DensityEngine.SUBUNITS_PT);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import android.app.Application;
+import edu.geneve.autosize.utils.DisplaySizeCache;
+import edu.geneve.autosize.utils.ScreenUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 对比每次都测量屏幕尺寸的 {@link ScreenUtils#getScreenSize} 与读取 {@link DisplaySizeCache} 的开销, 以及每次都重新计算系统栏高度与读取
+ * {@link edu.geneve.autosize.utils.SystemBarInsets} 的 {@link AutoSizeConfig#getScreenHeight()}
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DisplaySizeBenchmark {
+
+  private Application mApplication;
+  private DisplaySizeCache mDisplaySizeCache;
+
+  @Setup
+  public void setUp() {
+    mApplication = BenchmarkEnvironment.application();
+    mDisplaySizeCache = AutoSizeConfig.getInstance().getDisplaySizeCache();
+    AutoSizeConfig.getInstance().setUseDeviceSize(false);
+  }
+
+  @Benchmark
+  public int[] measure() {
+    return ScreenUtils.getScreenSize(mApplication);
+  }
+
+  @Benchmark
+  public long cached() {
+    return mDisplaySizeCache.getPackedSize();
+  }
+
+  @Benchmark
+  public int screenHeightMeasure() {
+    return mDisplaySizeCache.getHeight() - ScreenUtils.getStatusBarHeight()
+        - ScreenUtils.getNavigationBarHeight(mApplication);
+  }
+
+  @Benchmark
+  public int screenHeightCached() {
+    return AutoSizeConfig.getInstance().getScreenHeight();
+  }
+}
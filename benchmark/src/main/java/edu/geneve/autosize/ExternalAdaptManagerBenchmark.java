@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.geneve.autosize;
+
+import edu.geneve.autosize.external.ExternalAdaptInfo;
+import edu.geneve.autosize.external.ExternalAdaptManager;
+import java.lang.reflect.Array;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 在 {@link ExternalAdaptManager} 中注册了成百上千个类时的查询开销, 一半注册为取消适配, 一半注册为 {@link ExternalAdaptInfo},
+ * 以及批量注册和逐个链式注册的开销
+ * <p>
+ * 为了得到足够多互不相同的 {@link Class}, 这里使用不同维度的数组类型来代替三方库的 Activity
+ *
+ * @author Geneve
+ * @version 1.0
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExternalAdaptManagerBenchmark {
+
+  private static final Class<?>[] COMPONENT_TYPES = {
+      Object.class, String.class, Integer.class, Long.class, Float.class,
+      Double.class, Short.class, Byte.class, Character.class, Boolean.class
+  };
+
+  @Param({"100", "500", "2000"})
+  public int registered;
+
+  private ExternalAdaptManager mManager;
+  private Class<?>[] mCancelClasses;
+  private Class<?> mCanceledClass;
+  private Class<?> mExternalClass;
+  private Class<?> mUnknownClass;
+
+  @Setup
+  public void setUp() {
+    mManager = new ExternalAdaptManager();
+    Class<?>[] classes = syntheticClasses(registered + 1);
+    for (int i = 0; i < registered; i++) {
+      if ((i & 1) == 0) {
+        mManager.addCancelAdaptOfActivity(classes[i]);
+      } else {
+        mManager.addExternalAdaptInfoOfActivity(classes[i], new ExternalAdaptInfo(true, 400));
+      }
+    }
+    // 取最后注册的类, 即线性查找时最坏的情况
+    mCanceledClass = classes[(registered - 1) & ~1];
+    mExternalClass = classes[registered - 1 - ((registered - 1) & 1 ^ 1)];
+    mUnknownClass = classes[registered];
+    mCancelClasses = new Class<?>[registered];
+    System.arraycopy(classes, 0, mCancelClasses, 0, registered);
+  }
+
+  /**
+   * 一次性批量注册 {@link #registered} 个取消适配的类
+   */
+  @Benchmark
+  public ExternalAdaptManager.Snapshot bulkRegister() {
+    return new ExternalAdaptManager().addCancelAdaptOfActivities(mCancelClasses).getSnapshot();
+  }
+
+  /**
+   * 逐个链式注册 {@link #registered} 个取消适配的类, 与 {@link #bulkRegister()} 一样只在最后读取时复制一次
+   */
+  @Benchmark
+  public ExternalAdaptManager.Snapshot chainedRegister() {
+    final ExternalAdaptManager manager = new ExternalAdaptManager();
+    for (Class<?> cancelClass : mCancelClasses) {
+      manager.addCancelAdaptOfActivity(cancelClass);
+    }
+    return manager.getSnapshot();
+  }
+
+  @Benchmark
+  public boolean isCancelAdaptHit() {
+    return mManager.isCancelAdapt(mCanceledClass);
+  }
+
+  @Benchmark
+  public boolean isCancelAdaptMiss() {
+    return mManager.isCancelAdapt(mUnknownClass);
+  }
+
+  @Benchmark
+  public ExternalAdaptInfo externalAdaptInfoHit() {
+    return mManager.getExternalAdaptInfoOfActivity(mExternalClass);
+  }
+
+  @Benchmark
+  public ExternalAdaptInfo externalAdaptInfoMiss() {
+    return mManager.getExternalAdaptInfoOfActivity(mUnknownClass);
+  }
+
+  private static Class<?>[] syntheticClasses(int count) {
+    Class<?>[] classes = new Class<?>[count];
+    for (int i = 0; i < count; i++) {
+      Class<?> componentType = COMPONENT_TYPES[i % COMPONENT_TYPES.length];
+      int dimensions = i / COMPONENT_TYPES.length + 1;
+      classes[i] = Array.newInstance(componentType, new int[dimensions]).getClass();
+    }
+    return classes;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.app;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.view.WindowManager;
+
+/**
+ * JVM 上的 {@code android.app.Activity} 替身
+ */
+
+public class Activity extends ContextWrapper {
+
+  private boolean isInMultiWindowMode;
+
+  public Activity() {
+    super(null);
+  }
+
+  /**
+   * 替身专用, 对应 Android 中由系统完成的 {@code Activity#attach}
+   */
+  public final void attach(Context base) {
+    attachBaseContext(base);
+  }
+
+  public WindowManager getWindowManager() {
+    return (WindowManager) getSystemService(Context.WINDOW_SERVICE);
+  }
+
+  public boolean isFinishing() {
+    return false;
+  }
+
+  public boolean isInMultiWindowMode() {
+    return isInMultiWindowMode;
+  }
+
+  /**
+   * 替身专用, 模拟进入或退出分屏
+   */
+  public final void setInMultiWindowMode(boolean inMultiWindowMode) {
+    isInMultiWindowMode = inMultiWindowMode;
+  }
+}
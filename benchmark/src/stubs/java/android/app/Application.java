@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.app;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Bundle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM 上的 {@code android.app.Application} 替身
+ */
+
+public class Application extends ContextWrapper {
+
+  private final List<ActivityLifecycleCallbacks> mActivityLifecycleCallbacks = new ArrayList<>();
+
+  public Application() {
+    super(null);
+  }
+
+  /**
+   * 替身专用, 对应 Android 中由系统完成的 {@code Application#attach}
+   */
+  public final void attach(Context base) {
+    attachBaseContext(base);
+  }
+
+  @Override
+  public Context getApplicationContext() {
+    return this;
+  }
+
+  public void registerActivityLifecycleCallbacks(ActivityLifecycleCallbacks callback) {
+    mActivityLifecycleCallbacks.add(callback);
+  }
+
+  public void unregisterActivityLifecycleCallbacks(ActivityLifecycleCallbacks callback) {
+    mActivityLifecycleCallbacks.remove(callback);
+  }
+
+  public interface ActivityLifecycleCallbacks {
+
+    void onActivityCreated(Activity activity, Bundle savedInstanceState);
+
+    void onActivityStarted(Activity activity);
+
+    void onActivityResumed(Activity activity);
+
+    void onActivityPaused(Activity activity);
+
+    void onActivityStopped(Activity activity);
+
+    void onActivitySaveInstanceState(Activity activity, Bundle outState);
+
+    void onActivityDestroyed(Activity activity);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.content;
+
+import android.database.Cursor;
+import android.net.Uri;
+
+/**
+ * JVM 上的 {@code android.content.ContentProvider} 替身
+ */
+
+public abstract class ContentProvider {
+
+  private Context mContext;
+
+  public final Context getContext() {
+    return mContext;
+  }
+
+  public abstract boolean onCreate();
+
+  public abstract Cursor query(Uri uri, String[] projection, String selection,
+      String[] selectionArgs, String sortOrder);
+
+  public abstract String getType(Uri uri);
+
+  public abstract Uri insert(Uri uri, ContentValues values);
+
+  public abstract int delete(Uri uri, String selection, String[] selectionArgs);
+
+  public abstract int update(Uri uri, ContentValues values, String selection,
+      String[] selectionArgs);
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.content;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+import java.io.File;
+
+/**
+ * JVM 上的 {@code android.content.Context} 替身, 只保留 AutoSize 用到的成员
+ */
+
+public abstract class Context {
+
+  public static final String WINDOW_SERVICE = "window";
+  public static final String DISPLAY_SERVICE = "display";
+  public static final String LAYOUT_INFLATER_SERVICE = "layout_inflater";
+
+  public abstract Resources getResources();
+
+  public abstract Context getApplicationContext();
+
+  public abstract Object getSystemService(String name);
+
+  public abstract PackageManager getPackageManager();
+
+  public abstract String getPackageName();
+
+  public abstract ContentResolver getContentResolver();
+
+  public abstract ApplicationInfo getApplicationInfo();
+
+  public Resources.Theme getTheme() {
+    return null;
+  }
+
+  public File getCacheDir() {
+    return null;
+  }
+
+  public void registerComponentCallbacks(ComponentCallbacks callback) {
+  }
+
+  public void unregisterComponentCallbacks(ComponentCallbacks callback) {
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.content;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+
+/**
+ * JVM 上的 {@code android.content.ContextWrapper} 替身
+ */
+
+public class ContextWrapper extends Context {
+
+  Context mBase;
+
+  public ContextWrapper(Context base) {
+    mBase = base;
+  }
+
+  protected void attachBaseContext(Context base) {
+    if (mBase != null) {
+      throw new IllegalStateException("Base context already set");
+    }
+    mBase = base;
+  }
+
+  public Context getBaseContext() {
+    return mBase;
+  }
+
+  @Override
+  public Resources getResources() {
+    return mBase.getResources();
+  }
+
+  @Override
+  public Resources.Theme getTheme() {
+    return mBase.getTheme();
+  }
+
+  @Override
+  public Context getApplicationContext() {
+    return mBase.getApplicationContext();
+  }
+
+  @Override
+  public Object getSystemService(String name) {
+    return mBase.getSystemService(name);
+  }
+
+  @Override
+  public PackageManager getPackageManager() {
+    return mBase.getPackageManager();
+  }
+
+  @Override
+  public String getPackageName() {
+    return mBase.getPackageName();
+  }
+
+  @Override
+  public ContentResolver getContentResolver() {
+    return mBase.getContentResolver();
+  }
+
+  @Override
+  public ApplicationInfo getApplicationInfo() {
+    return mBase.getApplicationInfo();
+  }
+
+  @Override
+  public void registerComponentCallbacks(ComponentCallbacks callback) {
+    mBase.registerComponentCallbacks(callback);
+  }
+
+  @Override
+  public void unregisterComponentCallbacks(ComponentCallbacks callback) {
+    mBase.unregisterComponentCallbacks(callback);
+  }
+}
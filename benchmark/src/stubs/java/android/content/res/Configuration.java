@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.content.res;
+
+/**
+ * JVM 上的 {@code android.content.res.Configuration} 替身
+ */
+
+public final class Configuration {
+
+  public static final int ORIENTATION_UNDEFINED = 0;
+  public static final int ORIENTATION_PORTRAIT = 1;
+  public static final int ORIENTATION_LANDSCAPE = 2;
+  public static final int SCREEN_WIDTH_DP_UNDEFINED = 0;
+  public static final int SCREEN_HEIGHT_DP_UNDEFINED = 0;
+  public static final int DENSITY_DPI_UNDEFINED = 0;
+
+  public float fontScale = 1f;
+
+  public int orientation = ORIENTATION_PORTRAIT;
+
+  public int screenWidthDp = SCREEN_WIDTH_DP_UNDEFINED;
+
+  public int screenHeightDp = SCREEN_HEIGHT_DP_UNDEFINED;
+
+  public int densityDpi = DENSITY_DPI_UNDEFINED;
+
+  public Configuration() {
+  }
+
+  public Configuration(Configuration o) {
+    fontScale = o.fontScale;
+    orientation = o.orientation;
+    screenWidthDp = o.screenWidthDp;
+    screenHeightDp = o.screenHeightDp;
+    densityDpi = o.densityDpi;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+/**
+ * JVM 上的 {@code android.content.res.Resources} 替身, 每个实例持有自己的 {@link DisplayMetrics} 和 {@link
+ * Configuration}
+ */
+
+public class Resources {
+
+  private static Resources sSystem = new Resources(new DisplayMetrics(), new Configuration());
+
+  private final AssetManager mAssets;
+  private final DisplayMetrics mMetrics;
+  private final Configuration mConfiguration;
+
+  public Resources(DisplayMetrics metrics, Configuration config) {
+    mAssets = new AssetManager();
+    mMetrics = metrics;
+    mConfiguration = config;
+  }
+
+  /**
+   * 与 Android 一样复制 {@code metrics}, 并根据 {@link Configuration} 重新计算 density
+   */
+  public Resources(AssetManager assets, DisplayMetrics metrics, Configuration config) {
+    mAssets = assets;
+    mMetrics = new DisplayMetrics();
+    mMetrics.setTo(metrics);
+    mConfiguration = new Configuration(config);
+    if (config.densityDpi != Configuration.DENSITY_DPI_UNDEFINED) {
+      mMetrics.densityDpi = config.densityDpi;
+      mMetrics.density = config.densityDpi / (float) DisplayMetrics.DENSITY_DEFAULT;
+    }
+    mMetrics.scaledDensity = mMetrics.density * config.fontScale;
+  }
+
+  public static Resources getSystem() {
+    return sSystem;
+  }
+
+  /**
+   * 替身专用, 用来模拟设备的系统 {@link Resources}
+   */
+  public static void setSystem(Resources system) {
+    sSystem = system;
+  }
+
+  public AssetManager getAssets() {
+    return mAssets;
+  }
+
+  public Theme newTheme() {
+    return new Theme(this);
+  }
+
+  public DisplayMetrics getDisplayMetrics() {
+    return mMetrics;
+  }
+
+  public Configuration getConfiguration() {
+    return mConfiguration;
+  }
+
+  public int getIdentifier(String name, String defType, String defPackage) {
+    return 0;
+  }
+
+  public int getDimensionPixelSize(int id) throws NotFoundException {
+    throw new NotFoundException();
+  }
+
+  public final class Theme {
+
+    private final Resources mResources;
+
+    Theme(Resources resources) {
+      mResources = resources;
+    }
+
+    public void setTo(Theme other) {
+    }
+
+    public Resources getResources() {
+      return mResources;
+    }
+  }
+
+  public static class NotFoundException extends RuntimeException {
+
+    public NotFoundException() {
+    }
+
+    public NotFoundException(String name) {
+      super(name);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.hardware.display;
+
+import android.os.Handler;
+
+/**
+ * JVM 上的 {@code android.hardware.display.DisplayManager} 替身, 屏幕不会发生变化, 所以不会回调
+ */
+
+public final class DisplayManager {
+
+  public void registerDisplayListener(DisplayListener listener, Handler handler) {
+  }
+
+  public void unregisterDisplayListener(DisplayListener listener) {
+  }
+
+  public interface DisplayListener {
+
+    void onDisplayAdded(int displayId);
+
+    void onDisplayRemoved(int displayId);
+
+    void onDisplayChanged(int displayId);
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.os;
+
+/**
+ * JVM 上的 {@code android.os.Build} 替身, 模拟 API 29 的设备
+ */
+
+public class Build {
+
+  public static final String FINGERPRINT = "jvm/benchmark";
+
+  public static class VERSION {
+
+    public static final int SDK_INT = 29;
+  }
+
+  public static class VERSION_CODES {
+
+    public static final int JELLY_BEAN_MR1 = 17;
+    public static final int JELLY_BEAN_MR2 = 18;
+    public static final int KITKAT_WATCH = 20;
+    public static final int LOLLIPOP = 21;
+    public static final int N = 24;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM 上的 {@code android.os.Bundle} 替身
+ */
+
+public final class Bundle {
+
+  private final Map<String, Object> mMap = new HashMap<>();
+
+  public boolean containsKey(String key) {
+    return mMap.containsKey(key);
+  }
+
+  public Object get(String key) {
+    return mMap.get(key);
+  }
+
+  public void putInt(String key, int value) {
+    mMap.put(key, value);
+  }
+
+  public void putString(String key, String value) {
+    mMap.put(key, value);
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.os;
+
+/**
+ * JVM 上的 {@code android.os.Handler} 替身, 没有消息队列, {@link #post(Runnable)} 直接在当前线程执行
+ */
+
+public class Handler {
+
+  public Handler() {
+  }
+
+  public Handler(Looper looper) {
+  }
+
+  public final boolean post(Runnable r) {
+    r.run();
+    return true;
+  }
+
+  public final void removeCallbacks(Runnable r) {
+  }
+}
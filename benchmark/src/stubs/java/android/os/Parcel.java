@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.os;
+
+/**
+ * JVM 上的 {@code android.os.Parcel} 替身, 基准测试不会用到序列化, 所以只保留方法签名
+ */
+
+public final class Parcel {
+
+  public void writeByte(byte val) {
+  }
+
+  public void writeInt(int val) {
+  }
+
+  public void writeFloat(float val) {
+  }
+
+  public byte readByte() {
+    return 0;
+  }
+
+  public int readInt() {
+    return 0;
+  }
+
+  public float readFloat() {
+    return 0;
+  }
+}
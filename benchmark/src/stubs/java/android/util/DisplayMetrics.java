@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.util;
+
+/**
+ * JVM 上的 {@code android.util.DisplayMetrics} 替身
+ */
+
+public class DisplayMetrics {
+
+  public static final int DENSITY_DEFAULT = 160;
+
+  public int widthPixels;
+  public int heightPixels;
+  public float density;
+  public int densityDpi;
+  public float scaledDensity;
+  public float xdpi;
+  public float ydpi;
+
+  public void setTo(DisplayMetrics o) {
+    widthPixels = o.widthPixels;
+    heightPixels = o.heightPixels;
+    density = o.density;
+    densityDpi = o.densityDpi;
+    scaledDensity = o.scaledDensity;
+    xdpi = o.xdpi;
+    ydpi = o.ydpi;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.util;
+
+/**
+ * JVM 上的 {@code android.util.TypedValue} 替身, {@link #applyDimension} 与 Android 的实现一致
+ */
+
+public class TypedValue {
+
+  public static final int COMPLEX_UNIT_PX = 0;
+  public static final int COMPLEX_UNIT_DIP = 1;
+  public static final int COMPLEX_UNIT_SP = 2;
+  public static final int COMPLEX_UNIT_PT = 3;
+  public static final int COMPLEX_UNIT_IN = 4;
+  public static final int COMPLEX_UNIT_MM = 5;
+
+  public static float applyDimension(int unit, float value, DisplayMetrics metrics) {
+    switch (unit) {
+      case COMPLEX_UNIT_PX:
+        return value;
+      case COMPLEX_UNIT_DIP:
+        return value * metrics.density;
+      case COMPLEX_UNIT_SP:
+        return value * metrics.scaledDensity;
+      case COMPLEX_UNIT_PT:
+        return value * metrics.xdpi * (1.0f / 72);
+      case COMPLEX_UNIT_IN:
+        return value * metrics.xdpi;
+      case COMPLEX_UNIT_MM:
+        return value * metrics.xdpi * (1.0f / 25.4f);
+      default:
+        return 0;
+    }
+  }
+}
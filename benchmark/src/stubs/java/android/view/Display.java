@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.view;
+
+import android.graphics.Point;
+import android.util.DisplayMetrics;
+
+/**
+ * JVM 上的 {@code android.view.Display} 替身, 屏幕尺寸由基准测试环境指定
+ */
+
+public class Display {
+
+  public static final int DEFAULT_DISPLAY = 0;
+
+  private final int mDisplayId;
+  private final DisplayMetrics mMetrics;
+  private final int mRealWidth;
+  private final int mRealHeight;
+
+  public Display(int displayId, DisplayMetrics metrics, int realWidth, int realHeight) {
+    mDisplayId = displayId;
+    mMetrics = metrics;
+    mRealWidth = realWidth;
+    mRealHeight = realHeight;
+  }
+
+  public int getDisplayId() {
+    return mDisplayId;
+  }
+
+  public void getMetrics(DisplayMetrics outMetrics) {
+    outMetrics.setTo(mMetrics);
+  }
+
+  public void getRealSize(Point outSize) {
+    outSize.x = mRealWidth;
+    outSize.y = mRealHeight;
+  }
+}
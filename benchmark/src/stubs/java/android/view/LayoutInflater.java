@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.view;
+
+import android.content.Context;
+
+/**
+ * JVM 上的 {@code android.view.LayoutInflater} 替身, 只记录所使用的 {@link Context}
+ */
+
+public class LayoutInflater {
+
+  private final Context mContext;
+
+  protected LayoutInflater(Context context) {
+    mContext = context;
+  }
+
+  public static LayoutInflater from(Context context) {
+    final LayoutInflater inflater = (LayoutInflater) context
+        .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+    return inflater != null ? inflater : new LayoutInflater(context);
+  }
+
+  public LayoutInflater cloneInContext(Context newContext) {
+    return new LayoutInflater(newContext);
+  }
+
+  /**
+   * 替身不解析布局, 每次返回一个新的 {@link View}
+   */
+  public View inflate(int resource, ViewGroup root, boolean attachToRoot) {
+    return new View(mContext);
+  }
+
+  public Context getContext() {
+    return mContext;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.view;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+/**
+ * JVM 上的 {@code android.view.View} 替身
+ */
+
+public class View {
+
+  private final Context mContext;
+
+  public View() {
+    mContext = null;
+  }
+
+  public View(Context context) {
+    mContext = context;
+  }
+
+  public Context getContext() {
+    return mContext;
+  }
+
+  public Resources getResources() {
+    return mContext.getResources();
+  }
+}
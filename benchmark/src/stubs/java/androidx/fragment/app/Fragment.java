@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.fragment.app;
+
+/**
+ * JVM 上的 {@code androidx.fragment.app.Fragment} 替身
+ */
+
+public class Fragment {
+
+  private FragmentActivity mActivity;
+
+  public final FragmentActivity getActivity() {
+    return mActivity;
+  }
+
+  /**
+   * 替身专用, 对应 {@link FragmentManager} 将 {@link Fragment} 附加到宿主上
+   */
+  public final void attach(FragmentActivity activity) {
+    mActivity = activity;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.fragment.app;
+
+import android.os.Bundle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM 上的 {@code androidx.fragment.app.FragmentManager} 替身
+ */
+
+public class FragmentManager {
+
+  private final List<FragmentLifecycleCallbacks> mCallbacks = new ArrayList<>();
+
+  public void registerFragmentLifecycleCallbacks(FragmentLifecycleCallbacks cb,
+      boolean recursive) {
+    mCallbacks.add(cb);
+  }
+
+  public void unregisterFragmentLifecycleCallbacks(FragmentLifecycleCallbacks cb) {
+    mCallbacks.remove(cb);
+  }
+
+  public abstract static class FragmentLifecycleCallbacks {
+
+    public void onFragmentCreated(FragmentManager fm, Fragment f, Bundle savedInstanceState) {
+    }
+  }
+}